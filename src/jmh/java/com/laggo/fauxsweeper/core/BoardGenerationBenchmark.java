@@ -0,0 +1,61 @@
+package com.laggo.fauxsweeper.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a fresh board: allocating the cell storage, placing the mines and numbering every cell around them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BoardGenerationBenchmark {
+    @Param({"SQUARE", "HEXAGONAL", "TRIANGULAR"})
+    public StandardTiling tiling;
+
+    @Param({"10", "100", "1000", "4000"})
+    public int size;
+
+    @Param({"0.05", "0.15", "0.25"})
+    public double density;
+
+    @Param({"UNIFORM", "PARALLEL", "LEGACY"})
+    public MinePlacement placement;
+
+    private int mineCount;
+    private long seed;
+    private FauxsweeperGame reused;
+
+    @Setup
+    public void setUp() {
+        this.mineCount = (int) (this.size * this.size * this.density);
+        this.reused = new FauxsweeperGame(this.tiling, this.size, this.size, this.mineCount, 1L, this.placement);
+    }
+
+    @Benchmark
+    public FauxsweeperGame generate() {
+        // a different layout every time, so the benchmark can't settle into one lucky board
+        return new FauxsweeperGame(this.tiling, this.size, this.size, this.mineCount, this.seed++, this.placement);
+    }
+
+    @Benchmark
+    public FauxsweeperGame regenerate() {
+        // starting over reuses the board's storage, so this is just clearing it and placing mines
+        this.reused.newGame();
+        return this.reused;
+    }
+}
@@ -0,0 +1,57 @@
+package com.laggo.fauxsweeper.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Measures visiting the neighbors of every cell on the board once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class NeighborBenchmark {
+    @Param({"SQUARE", "HEXAGONAL", "TRIANGULAR"})
+    public StandardTiling tiling;
+
+    @Param({"10", "100", "1000", "4000"})
+    public int size;
+
+    private FauxsweeperGame game;
+    private final IntConsumer sumNeighbor = this::sumNeighbor;
+    private long sum;
+
+    @Setup
+    public void setUp() {
+        // neighbors don't depend on where the mines are
+        this.game = new FauxsweeperGame(this.tiling, this.size, this.size, 0, 1L);
+    }
+
+    private void sumNeighbor(int index) {
+        this.sum += index;
+    }
+
+    @Benchmark
+    public long allNeighbors() {
+        // summing the indices keeps the JIT from throwing the walk away
+        this.sum = 0;
+        for (int i = 0; i < this.game.getCellStore().size(); ++i) {
+            this.game.forEachNeighbor(i, this.sumNeighbor);
+        }
+        return this.sum;
+    }
+}
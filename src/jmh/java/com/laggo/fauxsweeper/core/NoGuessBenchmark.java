@@ -0,0 +1,45 @@
+package com.laggo.fauxsweeper.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures laying out a board which can be cleared without guessing, from building the game to the end of its first click.
+ * The default sizes are the classic beginner, intermediate and expert boards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class NoGuessBenchmark {
+    @Param({"SQUARE", "HEXAGONAL", "TRIANGULAR"})
+    public StandardTiling tiling;
+
+    @Param({"9x9x10", "16x16x40", "30x16x99"})
+    public String board;
+
+    private long seed;
+
+    @Benchmark
+    public FauxsweeperGame firstClick() {
+        String[] dimensions = this.board.split("x");
+        int width = Integer.parseInt(dimensions[0]);
+        int height = Integer.parseInt(dimensions[1]);
+        // a different layout every time, so the benchmark can't settle into one easy board
+        FauxsweeperGame game = new FauxsweeperGame(this.tiling, width, height, Integer.parseInt(dimensions[2]), this.seed++, MinePlacement.UNIFORM, true);
+        game.apply(width / 2, height / 2, CellAction.REVEAL);
+        return game;
+    }
+}
@@ -0,0 +1,57 @@
+package com.laggo.fauxsweeper.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures working out the chance of a mine under every hidden cell of an expert board part way through a game,
+ * when the edge of the revealed area is at its longest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ProbabilityBenchmark {
+    @Param({"SQUARE", "HEXAGONAL", "TRIANGULAR"})
+    public StandardTiling tiling;
+
+    /**
+     * How many of the safe cells have been revealed before measuring.
+     */
+    @Param({"0.25", "0.5", "0.75"})
+    public double progress;
+
+    private ProbabilitySolver solver;
+    private CellStore store;
+
+    @Setup
+    public void setUp() {
+        FauxsweeperGame game = new FauxsweeperGame(this.tiling, 30, 16, 99, 1L, MinePlacement.UNIFORM, true);
+        this.store = game.getCellStore();
+        game.apply(15, 8, CellAction.REVEAL);
+        // play on with the hints until enough of the board is open, which a no-guess board never loses
+        int safeCells = this.store.size() - game.getMineCount();
+        while (!game.isGameOver() && game.getUnrevealedSafeCells() > safeCells * (1 - this.progress)) {
+            game.apply(game.getHint(), CellAction.REVEAL);
+        }
+        this.solver = new ProbabilitySolver(game.getTopology());
+    }
+
+    @Benchmark
+    public double[] solve() {
+        return this.solver.solve(this.store, 99);
+    }
+}
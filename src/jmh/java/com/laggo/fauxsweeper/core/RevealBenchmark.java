@@ -0,0 +1,84 @@
+package com.laggo.fauxsweeper.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+/**
+ * Measures opening a cell which borders no mines, which floods out to everything connected to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RevealBenchmark {
+    @Param({"SQUARE", "HEXAGONAL", "TRIANGULAR"})
+    public StandardTiling tiling;
+
+    @Param({"10", "100", "1000", "4000"})
+    public int size;
+
+    @Param({"0.05", "0.15", "0.25"})
+    public double density;
+
+    private FauxsweeperGame game;
+    private IntPredicate isZero;
+    private int start;
+
+    @Setup(Level.Trial)
+    public void setUpGame() {
+        this.game = new FauxsweeperGame(this.tiling, this.size, this.size, (int) (this.size * this.size * this.density), 1L);
+        CellStore store = this.game.getCellStore();
+        this.isZero = i -> store.getValue(i) == CellValue.ZERO;
+    }
+
+    /**
+     * Revealing changes the board, so every call needs a fresh one.
+     */
+    @Setup(Level.Invocation)
+    public void resetGame() {
+        this.game.newGame();
+        this.start = findStart(this.game.getCellStore());
+    }
+
+    /**
+     * @return The first cell which borders no mines, or the first safe cell if there is none, so the click never loses.
+     */
+    private static int findStart(CellStore store) {
+        int firstSafe = -1;
+        for (int i = 0; i < store.size(); ++i) {
+            if (store.getValue(i) == CellValue.ZERO) {
+                return i;
+            }
+            if (firstSafe < 0 && !store.isMine(i)) {
+                firstSafe = i;
+            }
+        }
+        return firstSafe;
+    }
+
+    @Benchmark
+    public ClickResult reveal() {
+        return this.game.apply(this.start, CellAction.REVEAL);
+    }
+
+    @Benchmark
+    public int floodFill() {
+        // the fill on its own, without touching the board
+        return this.game.getFloodFill().fill(this.start, this.isZero, true);
+    }
+}
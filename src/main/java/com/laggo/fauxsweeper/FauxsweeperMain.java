@@ -3,11 +3,23 @@ package com.laggo.fauxsweeper;
 import com.laggo.fauxsweeper.board.FauxsweeperBoard;
 import com.laggo.fauxsweeper.cell.ICell;
 import com.laggo.fauxsweeper.config.Configuration;
+import com.laggo.fauxsweeper.config.RendererType;
 import javafx.application.Application;
 import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
 
 public class FauxsweeperMain extends Application {
     public static void main(String[] args) {
@@ -20,10 +32,44 @@ public class FauxsweeperMain extends Application {
 
         FauxsweeperBoard<? extends ICell> board = FauxsweeperBoard.fromConfiguration(configuration);
         configuration.syncToFile();
+        List<String> args = this.getParameters().getRaw();
+        try {
+            if (configuration.isAutosaveEnabled()) {
+                // pick up where the last game was left, as long as the board hasn't been changed since
+                board.autosaveTo(Paths.get(configuration.getAutosaveFile()));
+            }
+            if (configuration.isRecordingMoves()) {
+                // a file for every launch, so the game a bug report is about is easy to find and nothing grows forever
+                Path journals = Files.createDirectories(Paths.get(configuration.getJournalDirectory()));
+                String started = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss", Locale.ROOT));
+                board.recordTo(journals.resolve("moves-" + started + ".journal"));
+            }
+            // --replay file [game], where the game counts from 0, or from -1 for the last one backwards
+            if ((args.size() == 2 || args.size() == 3) && args.get(0).equals("--replay")) {
+                board.replay(Paths.get(args.get(1)), args.size() == 3 ? Integer.parseInt(args.get(2)) : -1, Duration.millis(250));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
 
         primaryStage.setTitle("Fauxsweeper");
-        primaryStage.setScene(new Scene(board.getGamePane()));
-        primaryStage.setResizable(false);
+        Scene scene = new Scene(board.getGamePane());
+        // H shows how likely every hidden cell is to be a mine
+        scene.setOnKeyPressed(evt -> {
+            if (evt.getCode() == KeyCode.H) {
+                board.toggleHints();
+            }
+        });
+        primaryStage.setScene(scene);
+        primaryStage.setOnCloseRequest(evt -> {
+            try {
+                board.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        // only the scrolling renderers can make use of a window of a different size
+        primaryStage.setResizable(configuration.getRenderer() != RendererType.BUTTONS);
         primaryStage.show();
     }
 }
@@ -0,0 +1,49 @@
+package com.laggo.fauxsweeper;
+
+import javafx.scene.image.Image;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decodes every icon resource at most once per GUI scale and hands out the same {@link Image} from then on.
+ * An {@link Image} can be shown by any number of {@link javafx.scene.image.ImageView}s at once, so the result can be shared freely.
+ */
+public class IconCache {
+    private static final Map<Double, IconCache> CACHES = new ConcurrentHashMap<>();
+    private final double size;
+    private final Map<String, Image> icons = new ConcurrentHashMap<>();
+
+    private IconCache(double guiScale) {
+        this.size = 16 * guiScale;
+    }
+
+    /**
+     * Gets the cache for icons drawn at a certain scale.
+     *
+     * @param guiScale The GUI scaling factor. Icons are 16 pixels square at a scale of 1.
+     * @return The shared cache for that scale.
+     */
+    public static IconCache forScale(double guiScale) {
+        return CACHES.computeIfAbsent(guiScale, IconCache::new);
+    }
+
+    /**
+     * Gets an icon, decoding it if this is the first time it has been asked for at this scale.
+     *
+     * @param resource The absolute path of the image resource, such as {@code /flag.png}.
+     * @return The scaled icon.
+     */
+    public Image get(String resource) {
+        Image icon = this.icons.get(resource);
+        if (icon == null) {
+            icon = this.icons.computeIfAbsent(resource, this::load);
+        }
+        return icon;
+    }
+
+    private Image load(String resource) {
+        return new Image(Objects.requireNonNull(IconCache.class.getResourceAsStream(resource)), this.size, this.size, true, false);
+    }
+}
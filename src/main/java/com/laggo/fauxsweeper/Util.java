@@ -15,11 +15,54 @@ public class Util {
      * @param angleOffset The angle offset at which to place the first vertex. As by convention in geometry, an offset of 0 means that a vertex will be exactly {@code radius} units to the right of the center.
      */
     public static void setPolygonSides(Polygon polygon, Point2D center, double radius, int sides, double angleOffset) {
+        double[] xPoints = new double[sides];
+        double[] yPoints = new double[sides];
+        getPolygonPoints(center.getX(), center.getY(), radius, sides, angleOffset, xPoints, yPoints);
+
         polygon.getPoints().clear();
+        for (int i = 0; i < sides; ++i) {
+            polygon.getPoints().addAll(xPoints[i], yPoints[i]);
+        }
+    }
+
+    /**
+     * Computes the vertices of a regular n-gon, in the same way as {@link #setPolygonSides(Polygon, Point2D, double, int, double)}.
+     *
+     * @param centerX The x coordinate on which the polygon is to be centered.
+     * @param centerY The y coordinate on which the polygon is to be centered.
+     * @param radius The distance from the center to any vertex of the polygon.
+     * @param sides The number of sides the polygon should have.
+     * @param angleOffset The angle offset at which to place the first vertex.
+     * @param xPoints The array to write the x coordinates of the vertices to. Must have room for at least {@code sides} values.
+     * @param yPoints The array to write the y coordinates of the vertices to. Must have room for at least {@code sides} values.
+     */
+    public static void getPolygonPoints(double centerX, double centerY, double radius, int sides, double angleOffset, double[] xPoints, double[] yPoints) {
         final double angleStep = Math.PI * 2 / sides;
         double angle = angleOffset;
         for (int i = 0; i < sides; ++i, angle += angleStep) {
-            polygon.getPoints().addAll(Math.cos(angle) * radius + center.getX(), Math.sin(angle) * radius + center.getY());
+            xPoints[i] = Math.cos(angle) * radius + centerX;
+            yPoints[i] = Math.sin(angle) * radius + centerY;
+        }
+    }
+
+    /**
+     * Tests whether a point lies inside a polygon, using the even-odd rule.
+     *
+     * @param xPoints The x coordinates of the polygon's vertices.
+     * @param yPoints The y coordinates of the polygon's vertices.
+     * @param sides The number of vertices to use from the arrays.
+     * @param x The x coordinate of the point.
+     * @param y The y coordinate of the point.
+     * @return Whether the point is inside.
+     */
+    public static boolean polygonContains(double[] xPoints, double[] yPoints, int sides, double x, double y) {
+        boolean inside = false;
+        for (int i = 0, j = sides - 1; i < sides; j = i++) {
+            if ((yPoints[i] > y) != (yPoints[j] > y)
+                    && x < (xPoints[j] - xPoints[i]) * (y - yPoints[i]) / (yPoints[j] - yPoints[i]) + xPoints[i]) {
+                inside = !inside;
+            }
         }
+        return inside;
     }
 }
@@ -0,0 +1,172 @@
+package com.laggo.fauxsweeper.board;
+
+import com.laggo.fauxsweeper.Util;
+import com.laggo.fauxsweeper.cell.HexagonalCell;
+import com.laggo.fauxsweeper.cell.TriangularCell;
+import com.laggo.fauxsweeper.core.StandardTiling;
+import javafx.geometry.Point2D;
+
+/**
+ * Where the cells of a board end up on screen, for renderers which lay cells out themselves instead of leaving it to the cell types.
+ * Positions agree with the {@code getCenterCoords} of the cell types.
+ */
+public class BoardGeometry {
+    private final StandardTiling tiling;
+    private final int width;
+    private final int height;
+    private final double guiScale;
+
+    /**
+     * @param tiling   The tiling of the board.
+     * @param width    The width of the board, in cells.
+     * @param height   The height of the board, in cells.
+     * @param guiScale The GUI scaling factor to lay the board out at.
+     */
+    public BoardGeometry(StandardTiling tiling, int width, int height, double guiScale) {
+        this.tiling = tiling;
+        this.width = width;
+        this.height = height;
+        this.guiScale = guiScale;
+    }
+
+    public double getGuiScale() {
+        return this.guiScale;
+    }
+
+    /**
+     * @return The width of the whole board, in pixels.
+     */
+    public double getBoardWidth() {
+        if (this.tiling == StandardTiling.HEXAGONAL) {
+            // odd rows stick out by half a hexagon
+            return this.getColumnWidth() * this.width + (this.height > 1 ? this.getColumnWidth() / 2 : 0);
+        }
+        return this.getColumnWidth() * this.width;
+    }
+
+    /**
+     * @return The height of the whole board, in pixels.
+     */
+    public double getBoardHeight() {
+        if (this.tiling == StandardTiling.HEXAGONAL) {
+            // rows overlap, so add the part of the last row which doesn't
+            return this.getRowHeight() * this.height + this.guiScale * 8 / 2;
+        }
+        return this.getRowHeight() * this.height;
+    }
+
+    /**
+     * @return The horizontal distance between neighboring cells of the same row, in pixels.
+     */
+    public double getColumnWidth() {
+        switch (this.tiling) {
+            case HEXAGONAL:
+                return this.guiScale * 8 * Math.sqrt(3);
+            default:
+                return this.guiScale * 16;
+        }
+    }
+
+    /**
+     * @return The vertical distance between neighboring rows, in pixels.
+     */
+    public double getRowHeight() {
+        switch (this.tiling) {
+            case HEXAGONAL:
+                return this.guiScale * 8 * 1.5;
+            case TRIANGULAR:
+                return this.guiScale * 16 * Math.sqrt(3) / 2;
+            default:
+                return this.guiScale * 16;
+        }
+    }
+
+    /**
+     * @return The size of the largest icon which fits inside the circle inscribed in a cell, in pixels.
+     */
+    public double getIconSize() {
+        switch (this.tiling) {
+            case HEXAGONAL:
+                return this.guiScale * 8 * Math.sqrt(3) / 2 * Math.sqrt(2);
+            case TRIANGULAR:
+                return this.guiScale * 16 / (2 * Math.sqrt(3)) * Math.sqrt(2);
+            default:
+                return this.guiScale * 16;
+        }
+    }
+
+    /**
+     * Computes the outline of a cell.
+     *
+     * @param x       The x coordinate of the cell.
+     * @param y       The y coordinate of the cell.
+     * @param xPoints The array to write the x coordinates of the vertices to. Must have room for six values.
+     * @param yPoints The array to write the y coordinates of the vertices to. Must have room for six values.
+     * @return The number of vertices written.
+     */
+    public int getCellOutline(int x, int y, double[] xPoints, double[] yPoints) {
+        switch (this.tiling) {
+            case HEXAGONAL: {
+                Point2D center = HexagonalCell.getCenterCoords(x, y, this.guiScale);
+                // rows are 1.5 sides apart, so the hexagons have to stand on a vertex to tile
+                Util.getPolygonPoints(center.getX(), center.getY(), this.guiScale * 8, 6, Math.PI / 6, xPoints, yPoints);
+                return 6;
+            }
+            case TRIANGULAR: {
+                final double sideLength = this.guiScale * 16;
+                final double altitude = sideLength * Math.sqrt(3) / 2;
+                Point2D center = TriangularCell.getCenterCoords(x, y, this.guiScale);
+                // the center coordinates are those of the bounding box; the vertices are measured from the centroid
+                if (StandardTiling.pointsUp(x, y)) {
+                    Util.getPolygonPoints(center.getX(), center.getY() + altitude / 6, sideLength / Math.sqrt(3), 3, -Math.PI / 2, xPoints, yPoints);
+                } else {
+                    Util.getPolygonPoints(center.getX(), center.getY() - altitude / 6, sideLength / Math.sqrt(3), 3, Math.PI / 2, xPoints, yPoints);
+                }
+                return 3;
+            }
+            default: {
+                final double size = this.guiScale * 16;
+                xPoints[0] = xPoints[3] = size * x;
+                xPoints[1] = xPoints[2] = size * (x + 1);
+                yPoints[0] = yPoints[1] = size * y;
+                yPoints[2] = yPoints[3] = size * (y + 1);
+                return 4;
+            }
+        }
+    }
+
+    /**
+     * Finds the cell under a point.
+     *
+     * @param pointX  The x coordinate of the point, in pixels.
+     * @param pointY  The y coordinate of the point, in pixels.
+     * @param xPoints Scratch space with room for six values.
+     * @param yPoints Scratch space with room for six values.
+     * @return The index of the cell, or -1 if the point is not on any cell.
+     */
+    public int getCellIndexAt(double pointX, double pointY, double[] xPoints, double[] yPoints) {
+        // first guess a cell close to the point, then test it and everything around it against the real outlines
+        int guessY;
+        int guessX;
+        if (this.tiling == StandardTiling.HEXAGONAL) {
+            final double sideLength = this.guiScale * 8;
+            guessY = (int) Math.round((pointY - sideLength) / this.getRowHeight());
+            guessX = (int) Math.round((pointX - this.getColumnWidth() / 2 * (1 + Math.floorMod(guessY, 2))) / this.getColumnWidth());
+        } else {
+            guessY = (int) Math.floor(pointY / this.getRowHeight());
+            guessX = (int) Math.floor(pointX / this.getColumnWidth());
+        }
+
+        for (int y = guessY - 1; y <= guessY + 1; ++y) {
+            for (int x = guessX - 1; x <= guessX + 1; ++x) {
+                if (x >= 0 && y >= 0 && x < this.width && y < this.height) {
+                    int sides = this.getCellOutline(x, y, xPoints, yPoints);
+                    if (Util.polygonContains(xPoints, yPoints, sides, pointX, pointY)) {
+                        return y * this.width + x;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+}
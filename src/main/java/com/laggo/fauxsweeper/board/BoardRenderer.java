@@ -0,0 +1,24 @@
+package com.laggo.fauxsweeper.board;
+
+import com.laggo.fauxsweeper.core.ChangeJournal;
+import javafx.scene.layout.Pane;
+
+/**
+ * Draws the cells of a {@link FauxsweeperBoard} and turns clicks on them back into cell clicks.
+ */
+public interface BoardRenderer {
+    /**
+     * Builds the pane showing the whole board, with every cell up to date. Called once; a new game reuses the pane and only
+     * repaints it through {@link #refresh(ChangeJournal)}.
+     *
+     * @return The {@link Pane} which should be used to represent the board.
+     */
+    Pane createBoardPane();
+
+    /**
+     * Brings the cells recorded in a {@link ChangeJournal} up to date, and clears it.
+     *
+     * @param changes The journal of changed cells.
+     */
+    void refresh(ChangeJournal changes);
+}
@@ -0,0 +1,31 @@
+package com.laggo.fauxsweeper.board;
+
+import com.laggo.fauxsweeper.cell.ICell;
+import com.laggo.fauxsweeper.core.ChangeJournal;
+import javafx.scene.layout.Pane;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Shows every cell as its own {@link com.laggo.fauxsweeper.cell.CellButton}, laid out by the cell type.
+ */
+public class ButtonBoardRenderer implements BoardRenderer {
+    private final FauxsweeperBoard<? extends ICell> board;
+    private final IntConsumer updateButton;
+
+    public ButtonBoardRenderer(FauxsweeperBoard<? extends ICell> board) {
+        this.board = board;
+        this.updateButton = index -> board.getCellAt(index).updateButton();
+    }
+
+    @Override
+    public Pane createBoardPane() {
+        // button shape and layout is not the same across all cells so let the type param handle this
+        return this.board.getCellAt(0).getBoardPane();
+    }
+
+    @Override
+    public void refresh(ChangeJournal changes) {
+        changes.drain(this.updateButton);
+    }
+}
@@ -0,0 +1,184 @@
+package com.laggo.fauxsweeper.board;
+
+import com.laggo.fauxsweeper.IconCache;
+import com.laggo.fauxsweeper.cell.ICell;
+import com.laggo.fauxsweeper.core.CellStore;
+import com.laggo.fauxsweeper.core.ChangeJournal;
+import com.laggo.fauxsweeper.core.StandardTiling;
+import javafx.geometry.Orientation;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.stage.Screen;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Draws the board onto a single {@link Canvas} instead of creating a node per cell.
+ * The canvas is only as big as the scrollable viewport and only the cells inside it are drawn, so it stays within the texture size
+ * JavaFX can handle however big the board is. Clicks are mapped back to cells with the same geometry used for drawing,
+ * and only changed cells are redrawn.
+ */
+public class CanvasBoardRenderer implements BoardRenderer {
+    private static final Color HIDDEN_FILL = Color.rgb(0xC6, 0xC6, 0xC6);
+    private static final Color REVEALED_FILL = Color.rgb(0xE8, 0xE8, 0xE8);
+    private static final Color BORDER = Color.rgb(0x80, 0x80, 0x80);
+
+    private final FauxsweeperBoard<? extends ICell> board;
+    private final CellStore store;
+    private final BoardGeometry geometry;
+    private final double iconSize;
+    private final IconCache icons;
+    private final Canvas canvas = new Canvas();
+    private final GraphicsContext graphics;
+    private final Pane viewport = new Pane(this.canvas);
+    private final ScrollBar horizontal = new ScrollBar();
+    private final ScrollBar vertical = new ScrollBar();
+    private final BorderPane pane = new BorderPane(this.viewport);
+    private final IntConsumer drawCell = this::drawCell;
+    // scratch space for the vertices of one cell
+    private final double[] xPoints = new double[6];
+    private final double[] yPoints = new double[6];
+    // the part of the board shown right now, in whole pixels so cell borders stay sharp
+    private double scrollX;
+    private double scrollY;
+    // the window of cells which reach into the viewport
+    private int firstX;
+    private int firstY;
+    private int lastX;
+    private int lastY;
+
+    public CanvasBoardRenderer(FauxsweeperBoard<? extends ICell> board) {
+        this.board = board;
+        this.store = board.getCellStore();
+        this.geometry = new BoardGeometry((StandardTiling) board.getTiling(), board.getWidth(), board.getHeight(), board.getGuiScale());
+
+        // keep icons inside each cell so they never spill onto a neighbor
+        this.iconSize = this.geometry.getIconSize();
+        this.icons = IconCache.forScale(this.iconSize / 16);
+
+        this.graphics = this.canvas.getGraphicsContext2D();
+        this.graphics.setLineWidth(1);
+        this.graphics.setStroke(BORDER);
+        this.graphics.setImageSmoothing(false);
+
+        this.canvas.setOnMousePressed(board::handleMouseDown);
+        this.canvas.setOnMouseReleased(evt -> {
+            board.handleMouseUp(evt);
+            int index = this.getCellIndexAt(evt.getX() + this.scrollX, evt.getY() + this.scrollY);
+            if (index >= 0) {
+                board.handleCellClick(index, evt);
+            }
+        });
+
+        // start out showing as much of the board as comfortably fits on the screen
+        Rectangle2D screen = Screen.getPrimary().getVisualBounds();
+        this.viewport.setPrefSize(Math.min(this.geometry.getBoardWidth(), screen.getWidth() * 0.8), Math.min(this.geometry.getBoardHeight(), screen.getHeight() * 0.8));
+        this.canvas.widthProperty().bind(this.viewport.widthProperty());
+        this.canvas.heightProperty().bind(this.viewport.heightProperty());
+
+        this.horizontal.setOrientation(Orientation.HORIZONTAL);
+        this.vertical.setOrientation(Orientation.VERTICAL);
+        this.horizontal.setUnitIncrement(this.geometry.getColumnWidth());
+        this.vertical.setUnitIncrement(this.geometry.getRowHeight());
+        this.pane.setBottom(this.horizontal);
+        this.pane.setRight(this.vertical);
+
+        this.canvas.widthProperty().addListener(evt -> this.redraw());
+        this.canvas.heightProperty().addListener(evt -> this.redraw());
+        this.horizontal.valueProperty().addListener(evt -> this.redraw());
+        this.vertical.valueProperty().addListener(evt -> this.redraw());
+        this.viewport.setOnScroll(this::handleScroll);
+    }
+
+    @Override
+    public Pane createBoardPane() {
+        this.redraw();
+        return this.pane;
+    }
+
+    @Override
+    public void refresh(ChangeJournal changes) {
+        changes.drain(this.drawCell);
+    }
+
+    private void handleScroll(ScrollEvent evt) {
+        this.horizontal.setValue(this.horizontal.getValue() - evt.getDeltaX());
+        this.vertical.setValue(this.vertical.getValue() - evt.getDeltaY());
+        evt.consume();
+    }
+
+    /**
+     * Works out which cells are inside the viewport and draws all of them.
+     */
+    private void redraw() {
+        double viewportWidth = this.canvas.getWidth();
+        double viewportHeight = this.canvas.getHeight();
+        this.horizontal.setMax(Math.max(0, this.geometry.getBoardWidth() - viewportWidth));
+        this.horizontal.setVisibleAmount(viewportWidth);
+        this.vertical.setMax(Math.max(0, this.geometry.getBoardHeight() - viewportHeight));
+        this.vertical.setVisibleAmount(viewportHeight);
+        this.scrollX = Math.floor(this.horizontal.getValue());
+        this.scrollY = Math.floor(this.vertical.getValue());
+
+        // cells stick out of their row and column a little for hexagons and triangles, so cover one extra on every side
+        this.firstX = Math.max(0, (int) (this.scrollX / this.geometry.getColumnWidth()) - 1);
+        this.firstY = Math.max(0, (int) (this.scrollY / this.geometry.getRowHeight()) - 1);
+        this.lastX = Math.min(this.store.getWidth() - 1, (int) ((this.scrollX + viewportWidth) / this.geometry.getColumnWidth()) + 1);
+        this.lastY = Math.min(this.store.getHeight() - 1, (int) ((this.scrollY + viewportHeight) / this.geometry.getRowHeight()) + 1);
+
+        // draw in board coordinates, shifted so the scrolled-to part lands on the canvas
+        this.graphics.setTransform(1, 0, 0, 1, -this.scrollX, -this.scrollY);
+        this.graphics.clearRect(this.scrollX, this.scrollY, viewportWidth, viewportHeight);
+        for (int y = this.firstY; y <= this.lastY; ++y) {
+            for (int x = this.firstX; x <= this.lastX; ++x) {
+                this.drawCell(this.store.indexOf(x, y));
+            }
+        }
+    }
+
+    private void drawCell(int index) {
+        int x = this.store.xOf(index);
+        int y = this.store.yOf(index);
+        // cells outside the viewport get drawn once they scroll into view
+        if (x < this.firstX || y < this.firstY || x > this.lastX || y > this.lastY) {
+            return;
+        }
+        int sides = this.geometry.getCellOutline(x, y, this.xPoints, this.yPoints);
+
+        Color hint = this.board.getHintColor(index);
+        this.graphics.setFill(hint != null ? hint : this.store.isRevealed(index) ? REVEALED_FILL : HIDDEN_FILL);
+        this.graphics.fillPolygon(this.xPoints, this.yPoints, sides);
+        this.graphics.strokePolygon(this.xPoints, this.yPoints, sides);
+
+        String icon = this.board.getDisplayIcon(index);
+        if (icon != null) {
+            // the average of the vertices is the center of the inscribed circle for all of these shapes
+            double centerX = 0;
+            double centerY = 0;
+            for (int i = 0; i < sides; ++i) {
+                centerX += this.xPoints[i];
+                centerY += this.yPoints[i];
+            }
+            centerX /= sides;
+            centerY /= sides;
+            this.graphics.drawImage(this.icons.get(icon), centerX - this.iconSize / 2, centerY - this.iconSize / 2, this.iconSize, this.iconSize);
+        }
+    }
+
+    /**
+     * Finds the cell under a point on the board.
+     *
+     * @param pointX The x coordinate of the point, in pixels from the left edge of the board rather than of the viewport.
+     * @param pointY The y coordinate of the point, in pixels from the top edge of the board rather than of the viewport.
+     * @return The index of the cell, or -1 if the point is not on any cell.
+     */
+    public int getCellIndexAt(double pointX, double pointY) {
+        return this.geometry.getCellIndexAt(pointX, pointY, this.xPoints, this.yPoints);
+    }
+}
@@ -1,12 +1,35 @@
 package com.laggo.fauxsweeper.board;
 
+import com.laggo.fauxsweeper.IconCache;
 import com.laggo.fauxsweeper.cell.*;
 import com.laggo.fauxsweeper.config.Configuration;
-import javafx.application.Platform;
+import com.laggo.fauxsweeper.config.RendererType;
+import com.laggo.fauxsweeper.config.TilingRegistry;
+import com.laggo.fauxsweeper.core.CellAction;
+import com.laggo.fauxsweeper.core.CellState;
+import com.laggo.fauxsweeper.core.CellStore;
+import com.laggo.fauxsweeper.core.CellValue;
+import com.laggo.fauxsweeper.core.ChangeJournal;
+import com.laggo.fauxsweeper.core.ClickResult;
+import com.laggo.fauxsweeper.core.FauxsweeperGame;
+import com.laggo.fauxsweeper.core.GameState;
+import com.laggo.fauxsweeper.core.MinePlacement;
+import com.laggo.fauxsweeper.core.MoveJournal;
+import com.laggo.fauxsweeper.core.MoveReplay;
+import com.laggo.fauxsweeper.core.SnapshotFile;
+import com.laggo.fauxsweeper.core.StandardTiling;
+import com.laggo.fauxsweeper.core.Tiling;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.binding.Bindings;
 import javafx.beans.property.BooleanProperty;
-import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.SimpleBooleanProperty;
-import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Button;
@@ -15,85 +38,148 @@ import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
+import javafx.util.Duration;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
- * A complete board of Fauxsweeper, with UI and other state.
+ * A complete board of Fauxsweeper, with UI and other state. The rules themselves are played out by a {@link FauxsweeperGame},
+ * which this board shows and feeds with the player's clicks.
  *
  * @param <CellT> The type of {@link ICell} this board uses.
  */
 public class FauxsweeperBoard<CellT extends ICell> {
+    private static final String[] COUNTER_STRINGS = new String[1000];
+    private static final String[] NUMBER_ICONS = new String[CellValue.MINE.ordinal()];
+    // one shade for every whole percent, so repainting cells with hints doesn't build new styles
+    private static final Color[] HINT_COLORS = new Color[101];
+    private static final String[] HINT_STYLES = new String[101];
+
+    static {
+        for (int i = 1; i < NUMBER_ICONS.length; ++i) {
+            NUMBER_ICONS[i] = "/open" + i + ".png";
+        }
+        for (int i = 0; i < COUNTER_STRINGS.length; ++i) {
+            COUNTER_STRINGS[i] = String.format("%03d", i);
+        }
+        // from green for certainly safe to red for certainly a mine
+        for (int i = 0; i < HINT_COLORS.length; ++i) {
+            int red = 0x60 + (0xE0 - 0x60) * i / 100;
+            int green = 0xC0 + (0x40 - 0xC0) * i / 100;
+            int blue = 0x60 + (0x40 - 0x60) * i / 100;
+            HINT_COLORS[i] = Color.rgb(red, green, blue);
+            HINT_STYLES[i] = String.format("-fx-base: rgb(%d, %d, %d);", red, green, blue);
+        }
+    }
+
     private final double guiScale;
     private final Font FONT;
-    private final int width;
-    private final int height;
-    private final int mineCount;
-    private final Random rand;
-    private final Class<CellT> cellTRef;
-    private final HashMap<BoardLocation, CellT> cells = new HashMap<>();
-    private final IntegerProperty gameTime = new SimpleIntegerProperty(this, "gameTime", 0);
-    private final boolean timerEnabled;
+    private final CellFactory<CellT> cellFactory;
+    private final Tiling tiling;
+    private final String tilingName;
+    private final FauxsweeperGame game;
+    // views are only created once something asks for a cell object, index-aligned with the store
+    private final ICell[] views;
+    private final BoardRenderer renderer;
+    private final ReadOnlyIntegerWrapper unrevealedSafeCells = new ReadOnlyIntegerWrapper(this, "unrevealedSafeCells", 0);
+    private final ReadOnlyIntegerWrapper flagCount = new ReadOnlyIntegerWrapper(this, "flagCount", 0);
+    // null when the timer is disabled, so it costs nothing
+    private final GameClock clock;
     private final StackPane upperPane = new StackPane();
     private final Pane gamePane;
     BooleanProperty isMouseDown = new SimpleBooleanProperty(this, "isMouseDown", false);
-    private GameState gameState = GameState.FIRST;
-    private ICell clickedMine;
-    private Timer timer = new Timer(true);
+    private final ObjectProperty<GameState> gameState = new SimpleObjectProperty<>(this, "gameState", GameState.FIRST);
+    private final Image faceSmile;
+    private final Image faceOhh;
+    private final Image faceWin;
+    private final Image faceDead;
+    // the chance of a mine under every cell while hints are shown, null otherwise
+    private double[] hints;
+    // where the game is saved after every move, if anywhere
+    private SnapshotFile autosave;
+    // where every move is written down, if anywhere
+    private MoveJournal journal;
+    // plays a recorded game back while it is running, with the journal it reads from
+    private Timeline replay;
+    private MoveReplay replayMoves;
 
     /**
      * Instantiates a new Fauxsweeper board.
      *
-     * @param cellTRef     Another reference to the type of cell being used. This is necessary for reflection.
-     * @param width        The width of the board.
-     * @param height       The height of the board.
-     * @param mineCount    The number of mines on the board.
-     * @param timerEnabled Whether to update the in-game timer.
-     * @param seed         The seed to use for RNG, if any.
-     * @param guiScale     The scale for the GUI.
+     * @param tiling        The tiling to play on, which also makes the cells.
+     * @param width         The width of the board.
+     * @param height        The height of the board.
+     * @param mineCount     The number of mines on the board.
+     * @param timerEnabled  Whether to update the in-game timer.
+     * @param seed          The seed to use for RNG, if any.
+     * @param guiScale      The scale for the GUI.
+     * @param rendererType  How to draw the cells of the board.
+     * @param minePlacement How to scatter the mines.
+     * @param noGuess       Whether to lay the mines out on the first click so the board can be cleared without guessing.
      */
-    public FauxsweeperBoard(Class<CellT> cellTRef, int width, int height, int mineCount, boolean timerEnabled, Long seed, double guiScale) {
-        this.cellTRef = cellTRef;
-
-        this.width = width;
-        this.height = height;
-        this.mineCount = mineCount;
-        this.timerEnabled = timerEnabled;
+    public FauxsweeperBoard(TilingProvider<CellT> tiling, int width, int height, int mineCount, boolean timerEnabled, Long seed, double guiScale, RendererType rendererType, MinePlacement minePlacement, boolean noGuess) {
+        this.cellFactory = tiling.getCellFactory();
+        this.tiling = tiling.getTiling();
+        this.tilingName = tiling.getName();
 
-        this.rand = (seed == null) ? new Random() : new Random(seed);
+        this.game = new FauxsweeperGame(this.tiling, width, height, mineCount, seed, minePlacement, noGuess);
+        this.views = new ICell[width * height];
+        this.clock = timerEnabled ? new GameClock() : null;
 
         this.guiScale = guiScale;
 
-        this.fillWithEmptyCells();
-        this.placeMines(this.mineCount);
-        this.computeNumberedCells();
-
-        this.isMouseDown.addListener(evt -> this.updateUpperPane());
-        this.gameTime.addListener(evt -> this.updateUpperPane());
+        this.syncState();
 
-        Pane boardPane = this.getAnyCell().getBoardPane();
+        this.FONT = Font.loadFont(Objects.requireNonNull(FauxsweeperBoard.class.getResourceAsStream("/Minecraftia-Regular.ttf")), -1);
+        IconCache faceIcons = IconCache.forScale(guiScale * 1.25);
+        this.faceSmile = faceIcons.get("/smile.png");
+        this.faceOhh = faceIcons.get("/ohh.png");
+        this.faceWin = faceIcons.get("/win.png");
+        this.faceDead = faceIcons.get("/dead.png");
+        this.buildUpperPane();
+
+        // the other renderers lay cells out themselves, so they only know the standard tilings; any other tiling lays out its own buttons
+        switch (this.tiling instanceof StandardTiling ? rendererType : RendererType.BUTTONS) {
+            case CANVAS:
+                this.renderer = new CanvasBoardRenderer(this);
+                break;
+            case VIRTUAL:
+                this.renderer = new VirtualBoardRenderer(this);
+                break;
+            default:
+                this.renderer = new ButtonBoardRenderer(this);
+                break;
+        }
+        Pane boardPane = this.renderer.createBoardPane();
         this.gamePane = new VBox(this.upperPane, boardPane);
-
-        this.updateGamePane();
-
-        this.timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                onTimerTick();
-            }
-        }, 1000, 1000);
+        // let a scrollable board take up whatever room the window gives it
+        VBox.setVgrow(boardPane, Priority.ALWAYS);
+        // building the pane already brought every button up to date
+        this.game.getChanges().clear();
+
+        if (this.clock != null) {
+            // stop counting as soon as the game ends
+            this.gameState.addListener((observable, oldState, newState) -> {
+                if (this.game.isGameOver()) {
+                    this.clock.stop();
+                }
+            });
+            this.clock.start();
+        }
 
         for (Node child : this.gamePane.getChildren()) {
             child.setOnMousePressed(this::handleMouseDown);
             child.setOnMouseReleased(this::handleMouseUp);
         }
-
-        this.FONT = Font.loadFont(Objects.requireNonNull(FauxsweeperBoard.class.getResourceAsStream("/Minecraftia-Regular.ttf")), -1);
     }
 
     /**
@@ -103,102 +189,336 @@ public class FauxsweeperBoard<CellT extends ICell> {
      * @return A new board object.
      */
     public static FauxsweeperBoard<? extends ICell> fromConfiguration(Configuration config) {
-        return new FauxsweeperBoard<>(config.getCellType().toClass(), config.getBoardWidth(), config.getBoardHeight(), config.getMineCount(), config.isTimerEnabled(), config.usesSetSeed() ? config.getSetSeed() : null, config.getGuiScale());
+        return fromConfiguration(TilingRegistry.get(config.getCellType()), config);
     }
 
-    private void onTimerTick() {
-        // this has to run on the javafx thread because setting the property also calls the listener to update the GUI
-        Platform.runLater(() -> {
-            if (!this.isGameOver()) {
-                this.gameTime.set(this.gameTime.get() + 1);
-            }
-        });
-    }
-
-    private void fillWithEmptyCells() {
-        for (int x = 0; x < this.width; x++) {
-            for (int y = 0; y < this.height; y++) {
-                BoardLocation loc = new BoardLocation(x, y);
-                // actually, this should never fail
-                try {
-                    this.cells.put(loc, cellTRef.getConstructor(FauxsweeperBoard.class, BoardLocation.class).newInstance(this, loc));
-                } catch (ReflectiveOperationException e) {
-                    throw new RuntimeException("this really shouldn't happen");
-                }
-            }
+    private static <CellT extends ICell> FauxsweeperBoard<CellT> fromConfiguration(TilingProvider<CellT> tiling, Configuration config) {
+        return new FauxsweeperBoard<>(tiling, config.getBoardWidth(), config.getBoardHeight(), config.getMineCount(), config.isTimerEnabled(), config.usesSetSeed() ? config.getSetSeed() : null, config.getGuiScale(), config.getRenderer(), config.getMinePlacement(), config.isNoGuess());
+    }
+
+    public Set<CellT> getAllCells() {
+        HashSet<CellT> ret = new HashSet<>();
+        for (int i = 0; i < this.game.getCellStore().size(); ++i) {
+            ret.add(this.getCellAt(i));
         }
+        return ret;
     }
 
-    private void placeMines(int count) {
-        BoardLocation potentialLoc;
-        while (count > 0) {
-            potentialLoc = new BoardLocation(rand.nextInt(this.width), rand.nextInt(this.height));
-            if (this.getCellAt(potentialLoc).getValue() != CellValue.MINE) {
-                this.getCellAt(potentialLoc).setValue(CellValue.MINE);
-                count--;
+    /**
+     * Applies a player's action to a cell and brings the board's properties up to date with the result.
+     *
+     * @param index  The index of the cell in the {@link CellStore}.
+     * @param action What to do to the cell.
+     * @return The result of the action.
+     */
+    public ClickResult apply(int index, CellAction action) {
+        ClickResult result = this.game.apply(index, action);
+        this.syncState();
+        this.updateHints();
+        return result;
+    }
+
+    /**
+     * Reveals a cell, keeping the count of unrevealed safe cells in sync.
+     *
+     * @param index The index of the cell in the {@link CellStore}.
+     */
+    public void revealCell(int index) {
+        this.game.revealCell(index);
+        this.syncState();
+        this.updateHints();
+    }
+
+    private void syncState() {
+        this.gameState.set(this.game.getGameState());
+        this.unrevealedSafeCells.set(this.game.getUnrevealedSafeCells());
+        this.flagCount.set(this.game.getFlagCount());
+    }
+
+    /**
+     * Shows or hides the chance of a mine under every hidden cell, as a shade from green for safe to red for certainly a mine.
+     */
+    public void toggleHints() {
+        this.hints = (this.hints == null) ? this.game.getMineProbabilities() : null;
+        this.game.getChanges().markAllDirty();
+        this.updateBoardPane();
+    }
+
+    /**
+     * @return Whether the chance of a mine is being shown on every hidden cell.
+     */
+    public boolean isShowingHints() {
+        return this.hints != null;
+    }
+
+    /**
+     * Works the chances out again after a move, and marks the cells whose chance changed for repainting.
+     */
+    private void updateHints() {
+        if (this.hints == null) {
+            return;
+        }
+        double[] updated = this.game.getMineProbabilities();
+        for (int i = 0; i < updated.length; ++i) {
+            if (Double.compare(updated[i], this.hints[i]) != 0) {
+                this.game.getChanges().markDirty(i);
             }
         }
+        this.hints = updated;
     }
 
-    private CellT getAnyCell() {
-        return this.cells.values().stream().findAny().orElse(null);
+    /**
+     * @param index The index of the cell in the {@link CellStore}.
+     * @return The chance of that cell holding a mine, from 0 to 1, or {@link Double#NaN} if hints are hidden or the cell is revealed.
+     */
+    public double getHintProbability(int index) {
+        return this.hints == null ? Double.NaN : this.hints[index];
     }
 
-    public Set<CellT> getAllCells() {
-        return new HashSet<>(this.cells.values());
+    /**
+     * @param index The index of the cell in the {@link CellStore}.
+     * @return The shade showing the chance of a mine under a cell, or {@code null} if it shouldn't be shaded.
+     */
+    public Color getHintColor(int index) {
+        double probability = this.getHintProbability(index);
+        return Double.isNaN(probability) ? null : HINT_COLORS[(int) Math.round(probability * 100)];
     }
 
-    private void computeNumberedCells() {
-        for (CellT cell : this.cells.values().stream().filter(c -> c.getValue() != CellValue.MINE).collect(Collectors.toSet())) {
-            cell.setValue(CellValue.values()[(int) cell.getNeighbors().stream().filter(n -> n.getValue() == CellValue.MINE).count()]);
-        }
+    /**
+     * @param index The index of the cell in the {@link CellStore}.
+     * @return The style which shades a cell's button by the chance of a mine under it, or an empty style if it shouldn't be shaded.
+     */
+    public String getHintStyle(int index) {
+        double probability = this.getHintProbability(index);
+        return Double.isNaN(probability) ? "" : HINT_STYLES[(int) Math.round(probability * 100)];
     }
 
-    private void secretlyMoveMine(BoardLocation mineLoc) {
-        BoardLocation oldMineLoc = mineLoc.clone();
+    /**
+     * Decides which icon a cell should show, given its state and the state of the game.
+     *
+     * @param index The index of the cell in the {@link CellStore}.
+     * @return The icon resource which should be used for this cell. Can be {@code null} if this cell should have no icon.
+     */
+    public String getDisplayIcon(int index) {
+        CellStore store = this.game.getCellStore();
+        if (!store.isRevealed(index)) {
+            switch (store.getState(index)) {
+                case NO_FLAG:
+                    return "/question.png";
+                case FLAG:
+                    return "/flag.png";
+                case FLAG_POTENTIAL:
+                    return "/flag-potential.png";
+            }
+        } else {
+            CellValue value = store.getValue(index);
+            if (store.getState(index) != CellState.NO_FLAG && value != CellValue.MINE) {
+                // then the game has ended
+                return "/misflagged.png";
+            }
+
+            if (value == CellValue.MINE) {
+                return (this.game.getClickedMineIndex() == index) ? "/mine-death.png" : "/mine-ceil.png";
+            }
 
-        while (this.getCellAt(mineLoc).getValue() == CellValue.MINE) {
-            mineLoc = new BoardLocation(this.rand.nextInt(this.width), this.rand.nextInt(this.height));
-        }
+            if (value == CellValue.ZERO) {
+                return null;
+            }
 
-        this.getCellAt(mineLoc).setValue(CellValue.MINE);
-        this.getCellAt(oldMineLoc).setValue(CellValue.ZERO);  // will be recomputed
-        this.computeNumberedCells();
+            return NUMBER_ICONS[value.ordinal()];
+        }
+        // technically unreachable
+        return null;
     }
 
     /**
      * @return The mine which was responsible for ending the game.
      */
     public ICell getClickedMine() {
-        return this.clickedMine;
+        int clickedMineIndex = this.game.getClickedMineIndex();
+        return clickedMineIndex < 0 ? null : this.getCellAt(clickedMineIndex);
     }
 
     /**
-     * Wipes the state of the board to start a new game.
+     * Wipes the state of the board to start a new game. Everything is reset in place: the cell views, their buttons and the board pane
+     * are kept and only repainted, so restarting even a huge board is quick and leaves nothing behind for the garbage collector.
      */
     public void newGame() {
-        this.cells.clear();
-        this.clickedMine = null;
-        this.gameState = GameState.FIRST;
-        this.gameTime.set(0);
-
-        this.fillWithEmptyCells();
-        this.placeMines(this.mineCount);
-        this.computeNumberedCells();
-        this.updateGamePane();
+        this.stopReplay();
+        // the game clears its own storage and marks every cell as changed
+        this.game.newGame();
+        this.restarted();
+    }
 
-        Pane boardPane = this.getAnyCell().getBoardPane();
-        this.gamePane.getChildren().set(1, boardPane);
+    /**
+     * Brings everything besides the game up to date after it has been started over.
+     */
+    private void restarted() {
+        this.syncState();
+        this.updateHints();
+        this.updateBoardPane();
 
-        // we must reschedule otherwise the time will increment at a wonky point
-        this.timer.cancel();
-        this.timer = new Timer(true);
-        this.timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                onTimerTick();
+        if (this.clock != null) {
+            this.clock.restart();
+        }
+    }
+
+    /**
+     * Saves the game to a file after every move from now on. If the file holds a game saved earlier on a board like this one,
+     * that game is picked up again first, clock and all.
+     *
+     * @param path The file to save to.
+     * @throws IOException If the file can't be opened.
+     */
+    public void autosaveTo(Path path) throws IOException {
+        this.closeAutosave();
+        this.autosave = SnapshotFile.open(path, this.game, this.tilingName);
+        if (!this.autosave.isResumed()) {
+            return;
+        }
+        this.syncState();
+        this.updateHints();
+        if (this.clock != null) {
+            this.clock.restart(this.autosave.getResumedNanos());
+            if (this.game.isGameOver()) {
+                this.clock.stop();
             }
-        }, 1000, 1000);
+        }
+        this.updateBoardPane();
+    }
+
+    /**
+     * Saves the game one last time, including the time spent since the last move, and stops saving it.
+     *
+     * @throws IOException If the file can't be written out.
+     */
+    public void closeAutosave() throws IOException {
+        if (this.autosave == null) {
+            return;
+        }
+        this.autosave.save(this.getElapsedNanos());
+        this.autosave.close();
+        this.autosave = null;
+    }
+
+    /**
+     * Writes down every move made on this board from now on, at the end of a {@link MoveJournal} file.
+     * A game which is already under way is only written down from the next new game.
+     *
+     * @param path The journal file.
+     * @throws IOException If the file can't be opened.
+     */
+    public void recordTo(Path path) throws IOException {
+        this.closeJournal();
+        this.journal = MoveJournal.append(path, this.tilingName);
+        this.journal.follow(this.game);
+    }
+
+    /**
+     * Stops writing down moves and closes the journal.
+     *
+     * @throws IOException If the journal can't be written out.
+     */
+    public void closeJournal() throws IOException {
+        if (this.journal == null) {
+            return;
+        }
+        this.game.setMoveListener(null);
+        this.journal.close();
+        this.journal = null;
+    }
+
+    /**
+     * Plays one game of a {@link MoveJournal} file back on this board, one move at a time. Starting a new game stops it.
+     * Nothing played back is written to this board's own journal.
+     *
+     * @param path      The journal file.
+     * @param gameIndex Which game in the file to play, counting from 0 at the start, or from -1 for the last one backwards.
+     * @param interval  How long to wait between moves.
+     * @throws IOException              If the file can't be read.
+     * @throws IllegalArgumentException If there is no such game, or it was played on a different kind of board.
+     */
+    public void replay(Path path, int gameIndex, Duration interval) throws IOException {
+        if (gameIndex < 0) {
+            // games are only found by reading through the file, so count them first
+            try (MoveReplay counting = MoveReplay.open(path)) {
+                int games = 0;
+                while (counting.nextGame() != null) {
+                    games++;
+                }
+                gameIndex += games;
+            }
+        }
+        MoveReplay moves = MoveReplay.open(path);
+        MoveReplay.RecordedGame recorded = null;
+        for (int i = 0; i <= gameIndex; ++i) {
+            recorded = moves.nextGame();
+            if (recorded == null) {
+                break;
+            }
+        }
+        if (recorded == null || !recorded.getTilingName().equals(this.tilingName) || !recorded.fits(this.game)) {
+            moves.close();
+            throw new IllegalArgumentException(path + " has no game " + gameIndex + " played on a board like this one");
+        }
+        this.stopReplay();
+        this.game.setMoveListener(null);
+        recorded.restart(this.game);
+        this.restarted();
+
+        this.replay = new Timeline(new KeyFrame(interval, evt -> {
+            boolean more;
+            try {
+                more = moves.step(this.game);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.syncState();
+            this.updateHints();
+            this.updateGamePane();
+            if (!more) {
+                this.stopReplay();
+            }
+        }));
+        this.replay.setCycleCount(Animation.INDEFINITE);
+        this.replayMoves = moves;
+        this.replay.play();
+    }
+
+    private void stopReplay() {
+        if (this.replay == null) {
+            return;
+        }
+        this.replay.stop();
+        this.replay = null;
+        try {
+            this.replayMoves.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.replayMoves = null;
+        if (this.journal != null) {
+            // starts writing again from the next new game
+            this.journal.follow(this.game);
+        }
+    }
+
+    /**
+     * Stops saving and writing down moves, closing every file this board keeps open.
+     *
+     * @throws IOException If a file can't be written out.
+     */
+    public void close() throws IOException {
+        this.stopReplay();
+        this.closeAutosave();
+        this.closeJournal();
+    }
+
+    /**
+     * @return The time spent on the current game so far in nanoseconds, or 0 if the timer is disabled.
+     */
+    public long getElapsedNanos() {
+        return this.clock == null ? 0 : this.clock.getElapsedNanos();
     }
 
     /**
@@ -208,14 +528,118 @@ public class FauxsweeperBoard<CellT extends ICell> {
      * @return The found cell.
      */
     public CellT getCellAt(BoardLocation loc) {
-        return this.cells.get(loc);
+        return this.getCellAt(loc.getX(), loc.getY());
+    }
+
+    /**
+     * Gets the cell at certain coordinates.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The found cell, or {@code null} if the coordinates are off the board.
+     */
+    public CellT getCellAt(int x, int y) {
+        CellStore store = this.game.getCellStore();
+        if (!store.contains(x, y)) {
+            return null;
+        }
+        return this.getCellAt(store.indexOf(x, y));
+    }
+
+    /**
+     * Gets the cell at a certain index of the {@link CellStore}, creating its view if necessary.
+     *
+     * @param index The index to find a cell at.
+     * @return The found cell.
+     */
+    @SuppressWarnings("unchecked")
+    public CellT getCellAt(int index) {
+        if (this.views[index] == null) {
+            this.views[index] = this.cellFactory.create(this, new BoardLocation(this.game.getCellStore().xOf(index), this.game.getCellStore().yOf(index)));
+        }
+        return (CellT) this.views[index];
+    }
+
+    /**
+     * @return The dense storage holding the state of every cell.
+     */
+    public CellStore getCellStore() {
+        return this.game.getCellStore();
+    }
+
+    /**
+     * @return The game being played on this board.
+     */
+    public FauxsweeperGame getGame() {
+        return this.game;
+    }
+
+    /**
+     * @return The stage the game is in.
+     */
+    public ReadOnlyObjectProperty<GameState> gameStateProperty() {
+        return this.gameState;
+    }
+
+    public GameState getGameState() {
+        return this.gameState.get();
+    }
+
+    /**
+     * @return The number of cells without a mine which are yet to be revealed. The game is won once this reaches zero.
+     */
+    public ReadOnlyIntegerProperty unrevealedSafeCellsProperty() {
+        return this.unrevealedSafeCells.getReadOnlyProperty();
+    }
+
+    public int getUnrevealedSafeCells() {
+        return this.unrevealedSafeCells.get();
+    }
+
+    /**
+     * @return The number of cells carrying either kind of flag.
+     */
+    public ReadOnlyIntegerProperty flagCountProperty() {
+        return this.flagCount.getReadOnlyProperty();
+    }
+
+    public int getFlagCount() {
+        return this.flagCount.get();
+    }
+
+    /**
+     * @return The journal of cells changed since the board pane was last refreshed.
+     */
+    public ChangeJournal getChanges() {
+        return this.game.getChanges();
+    }
+
+    /**
+     * @return The tiling used by this board.
+     */
+    public Tiling getTiling() {
+        return this.tiling;
+    }
+
+    /**
+     * @return The width of the board.
+     */
+    public int getWidth() {
+        return this.game.getWidth();
+    }
+
+    /**
+     * @return The height of the board.
+     */
+    public int getHeight() {
+        return this.game.getHeight();
     }
 
     /**
      * @return Whether the game has ended for any reason.
      */
     public boolean isGameOver() {
-        return this.gameState == GameState.WON || this.gameState == GameState.LOST;
+        return this.game.isGameOver();
     }
 
     /**
@@ -225,36 +649,33 @@ public class FauxsweeperBoard<CellT extends ICell> {
      */
     public void handleBoardClick(MouseEvent evt) {
         if (evt.getTarget() instanceof CellButton) {
-            if (evt.getButton() == MouseButton.PRIMARY) {
-                ClickResult result = Objects.requireNonNull(((CellButton) evt.getTarget()).getCell()).onLeftClick();
-                if (result == ClickResult.FAIL) {
-                    if (this.gameState == GameState.FIRST) {
-                        this.gameState = GameState.IN_PROGRESS;
-                        this.secretlyMoveMine(((CellButton) evt.getTarget()).getCell().getLocation());
-                        ((CellButton) evt.getTarget()).getCell().onLeftClick();
-                    } else {
-                        this.gameState = GameState.LOST;
-                        this.clickedMine = ((CellButton) evt.getTarget()).getCell();
-                        this.revealAll();
-                    }
-                } else if (result == ClickResult.OK) {
-                    this.gameState = GameState.IN_PROGRESS;
-                    if (this.cells.values().stream().noneMatch(c -> !c.isRevealed() && c.getValue() != CellValue.MINE)) {
-                        this.gameState = GameState.WON;
-                        this.revealAll();
-                    }
-                }
-            } else if (evt.getButton() == MouseButton.SECONDARY) {
-                Objects.requireNonNull(((CellButton) evt.getTarget()).getCell()).onRightClick(evt);
-            }
+            this.clickCell(Objects.requireNonNull(((CellButton) evt.getTarget()).getCell()), evt);
         }
 
         this.updateGamePane();
     }
 
-    private void revealAll() {
-        for (CellT cell : this.cells.values()) {
-            cell.reveal();
+    /**
+     * Handle a click on a cell which has already been found by the renderer.
+     *
+     * @param index The index of the clicked cell in the {@link CellStore}.
+     * @param evt   The {@link MouseEvent} in question.
+     */
+    public void handleCellClick(int index, MouseEvent evt) {
+        // no need for a cell object here, the game can take the index as it is
+        if (evt.getButton() == MouseButton.PRIMARY) {
+            this.apply(index, CellAction.REVEAL);
+        } else if (evt.getButton() == MouseButton.SECONDARY) {
+            this.apply(index, evt.isShiftDown() ? CellAction.CYCLE_FLAG_BACK : CellAction.CYCLE_FLAG);
+        }
+        this.updateGamePane();
+    }
+
+    private void clickCell(ICell cell, MouseEvent evt) {
+        if (evt.getButton() == MouseButton.PRIMARY) {
+            cell.onLeftClick();
+        } else if (evt.getButton() == MouseButton.SECONDARY) {
+            cell.onRightClick(evt);
         }
     }
 
@@ -263,64 +684,82 @@ public class FauxsweeperBoard<CellT extends ICell> {
      * @return The board state as an ASCII table.
      */
     public String dump(boolean xRay) {
-        StringBuilder builder = new StringBuilder();
-        for (int x = 0; x < this.width; ++x) {
-            for (int y = 0; y < this.height; y++) {
-                CellT thisCell = this.getCellAt(new BoardLocation(x, y));
-                char actualState = CellValue.asChar(thisCell.getValue());
-                builder.append((thisCell.isRevealed() || xRay) ? actualState : '?');
-                builder.append(" ");
-            }
-            builder.append("\n");
-        }
-        return builder.toString();
+        return this.game.dump(xRay);
     }
 
     private void updateGamePane() {
-        this.updateUpperPane();
+        // the upper pane is bound to the board's properties and keeps itself up to date
         this.updateBoardPane();
     }
 
-    private void updateUpperPane() {
-        int minesLeft = (int) (this.mineCount - this.cells.values().stream().filter(c -> c.getState() != CellState.NO_FLAG).count());
-
-        Text textMinesLeft = new Text(String.format("%03d", minesLeft));
+    private void buildUpperPane() {
+        Text textMinesLeft = new Text();
         textMinesLeft.setFont(FONT);
+        textMinesLeft.textProperty().bind(Bindings.createStringBinding(() -> formatCounter(this.game.getMineCount() - this.flagCount.get()), this.flagCount));
         StackPane.setAlignment(textMinesLeft, Pos.CENTER_LEFT);
 
-        String faceButtonImage;
-        switch (this.gameState) {
+        ImageView faceView = new ImageView();
+        faceView.imageProperty().bind(Bindings.createObjectBinding(this::getFaceImage, this.gameState, this.isMouseDown));
+        Button faceButton = new Button("", faceView);
+        faceButton.setOnAction((event) -> this.newGame());
+        StackPane.setAlignment(faceButton, Pos.CENTER);
+
+        // a no-guess board the solver never managed to clear is still played, but the player should know a guess may come up
+        Text textMayGuess = new Text("may need guessing");
+        textMayGuess.setFont(Font.font(7 * this.guiScale));
+        textMayGuess.setMouseTransparent(true);
+        textMayGuess.visibleProperty().bind(Bindings.createBooleanBinding(
+                () -> this.game.isNoGuess() && this.gameState.get() != GameState.FIRST && !this.game.isGuaranteedNoGuess(), this.gameState));
+        StackPane.setAlignment(textMayGuess, Pos.BOTTOM_LEFT);
+
+        this.upperPane.getChildren().addAll(textMinesLeft, textMayGuess, faceButton);
+
+        if (this.clock != null) {
+            Text textTimer = new Text();
+            textTimer.setFont(FONT);
+            textTimer.textProperty().bind(Bindings.createStringBinding(() -> formatCounter(Math.min(999, this.clock.getSeconds())), this.clock.secondsProperty()));
+            StackPane.setAlignment(textTimer, Pos.CENTER_RIGHT);
+            this.upperPane.getChildren().add(textTimer);
+        }
+    }
+
+    private Image getFaceImage() {
+        switch (this.gameState.get()) {
             case WON:
-                faceButtonImage = "win.png";
-                break;
+                return this.faceWin;
             case LOST:
-                faceButtonImage = "dead.png";
-                break;
+                return this.faceDead;
             default:
-                faceButtonImage = (isMouseDown.get()) ? "ohh.png" : "smile.png";
-                break;
+                return (this.isMouseDown.get()) ? this.faceOhh : this.faceSmile;
         }
+    }
 
-        Button faceButton = new Button("", new ImageView(new Image(Objects.requireNonNull(this.getClass().getClassLoader().getResourceAsStream(faceButtonImage)), 16 * this.guiScale * 1.25, 16 * this.guiScale * 1.25, true, false)));
-        faceButton.setOnAction((event) -> this.newGame());
-        StackPane.setAlignment(faceButton, Pos.CENTER);
-
-        Text textTimer = new Text(String.format("%03d", Math.min(999, gameTime.get())));
-        textTimer.setFont(FONT);
-        StackPane.setAlignment(textTimer, Pos.CENTER_RIGHT);
-
-        this.upperPane.getChildren().clear();
-        this.upperPane.getChildren().addAll(textMinesLeft, faceButton);
-        if (this.timerEnabled) {
-            this.upperPane.getChildren().add(textTimer);
+    /**
+     * @param value The number to show on one of the counters.
+     * @return The number padded to three digits, the way the counters show it.
+     */
+    private static String formatCounter(int value) {
+        // the counters tick constantly, so don't build the common strings over and over
+        if (value >= 0 && value < COUNTER_STRINGS.length) {
+            return COUNTER_STRINGS[value];
         }
+        return String.format("%03d", value);
     }
 
     private void updateBoardPane() {
-        // button shape and layout is not the same across all cells so let the type param handle this
-        for (CellT cell : this.cells.values()) {
-            cell.updateButton();
+        if (this.autosave != null) {
+            // this has to happen before the renderer drains the journal, since only the changed cells get saved
+            this.autosave.save(this.getElapsedNanos());
+        }
+        if (this.journal != null) {
+            try {
+                // a crash should still leave every move behind for the bug report
+                this.journal.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
+        this.renderer.refresh(this.game.getChanges());
     }
 
     /**
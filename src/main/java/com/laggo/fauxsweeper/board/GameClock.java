@@ -0,0 +1,100 @@
+package com.laggo.fauxsweeper.board;
+
+import javafx.animation.AnimationTimer;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+
+/**
+ * The clock of a game, driven by the JavaFX pulse instead of a thread of its own, so any number of boards can run one for free.
+ * Elapsed time is measured with {@link System#nanoTime()}, and the whole seconds shown on the board are only updated when they change.
+ * Everything here has to happen on the JavaFX thread.
+ */
+public class GameClock extends AnimationTimer {
+    private final ReadOnlyIntegerWrapper seconds = new ReadOnlyIntegerWrapper(this, "seconds", 0);
+    // the time already counted before the clock was last started
+    private long elapsedBefore = 0;
+    // when the clock was last started, while it is running
+    private long startedAt;
+    private boolean running = false;
+
+    /**
+     * Starts the clock from zero, whether or not it was running.
+     */
+    public void restart() {
+        this.restart(0);
+    }
+
+    /**
+     * Starts the clock from some time already spent, whether or not it was running.
+     *
+     * @param elapsedNanos The time to count on from, in nanoseconds.
+     */
+    public void restart(long elapsedNanos) {
+        this.stop();
+        this.elapsedBefore = elapsedNanos;
+        this.seconds.set(this.toSeconds(elapsedNanos));
+        this.start();
+    }
+
+    /**
+     * Starts or resumes the clock. Does nothing if it is already running.
+     */
+    @Override
+    public void start() {
+        if (this.running) {
+            return;
+        }
+        this.startedAt = System.nanoTime();
+        this.running = true;
+        super.start();
+    }
+
+    /**
+     * Pauses the clock, keeping the time counted so far. Does nothing if it isn't running.
+     */
+    @Override
+    public void stop() {
+        if (!this.running) {
+            return;
+        }
+        super.stop();
+        this.elapsedBefore += System.nanoTime() - this.startedAt;
+        this.running = false;
+        this.seconds.set(this.toSeconds(this.elapsedBefore));
+    }
+
+    @Override
+    public void handle(long now) {
+        // the pulse time comes from System.nanoTime() too
+        this.seconds.set(this.toSeconds(this.elapsedBefore + now - this.startedAt));
+    }
+
+    private int toSeconds(long nanos) {
+        return (int) Math.min(Integer.MAX_VALUE, nanos / 1_000_000_000L);
+    }
+
+    /**
+     * @return Whether the clock is counting.
+     */
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * @return The time counted so far, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return this.running ? this.elapsedBefore + System.nanoTime() - this.startedAt : this.elapsedBefore;
+    }
+
+    /**
+     * @return The whole seconds counted so far, which only changes once a second.
+     */
+    public ReadOnlyIntegerProperty secondsProperty() {
+        return this.seconds.getReadOnlyProperty();
+    }
+
+    public int getSeconds() {
+        return this.seconds.get();
+    }
+}
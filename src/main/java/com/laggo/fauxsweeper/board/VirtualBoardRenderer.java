@@ -0,0 +1,254 @@
+package com.laggo.fauxsweeper.board;
+
+import com.laggo.fauxsweeper.IconCache;
+import com.laggo.fauxsweeper.Util;
+import com.laggo.fauxsweeper.cell.CellButton;
+import com.laggo.fauxsweeper.cell.HexagonalCell;
+import com.laggo.fauxsweeper.cell.ICell;
+import com.laggo.fauxsweeper.cell.TriangularCell;
+import com.laggo.fauxsweeper.core.CellStore;
+import com.laggo.fauxsweeper.core.ChangeJournal;
+import com.laggo.fauxsweeper.core.StandardTiling;
+import javafx.geometry.Orientation;
+import javafx.geometry.Point2D;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Polygon;
+import javafx.scene.shape.Rectangle;
+import javafx.stage.Screen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Shows the board through a scrollable, zoomable viewport. Only the cells inside the viewport get a {@link CellButton},
+ * and those buttons are handed to other cells as the viewport moves, so the number of nodes depends on the size of the window rather than the board.
+ * Buttons are laid out and shaped the same way the cell types do it themselves.
+ */
+public class VirtualBoardRenderer implements BoardRenderer {
+    // zoom in whole steps so only a handful of icon scales ever get decoded
+    private static final double ZOOM_STEP = 1.1;
+    private static final int MAX_ZOOM_STEPS = 14;
+
+    private final FauxsweeperBoard<? extends ICell> board;
+    private final CellStore store;
+    private final StandardTiling tiling;
+    private final Pane viewport = new Pane();
+    private final ScrollBar horizontal = new ScrollBar();
+    private final ScrollBar vertical = new ScrollBar();
+    private final BorderPane pane = new BorderPane(this.viewport);
+    private final List<CellButton> pool = new ArrayList<>();
+    private final List<ImageView> poolIcons = new ArrayList<>();
+    // the cell each pooled button currently stands for, or -1 if it is unused
+    private int[] slotCells = new int[0];
+    private final IntConsumer refreshCell = this::refreshCell;
+    // the shapes only depend on orientation since buttons scale their shape to fit, so every button can share them
+    private final Polygon hexShape = new Polygon();
+    private final Polygon upShape = new Polygon();
+    private final Polygon downShape = new Polygon();
+    private int zoomSteps = 0;
+    private BoardGeometry geometry;
+    private IconCache icons;
+    // the window of cells currently covered by pooled buttons
+    private int firstX;
+    private int firstY;
+    private int columns;
+    private int rows;
+
+    public VirtualBoardRenderer(FauxsweeperBoard<? extends ICell> board) {
+        this.board = board;
+        this.store = board.getCellStore();
+        this.tiling = (StandardTiling) board.getTiling();
+
+        Util.setPolygonSides(this.hexShape, Point2D.ZERO, 1, 6, 0);
+        Util.setPolygonSides(this.upShape, Point2D.ZERO, 1, 3, Math.PI / 2);
+        Util.setPolygonSides(this.downShape, Point2D.ZERO, 1, 3, -Math.PI / 2);
+
+        this.setZoom(0);
+
+        Rectangle clip = new Rectangle();
+        clip.widthProperty().bind(this.viewport.widthProperty());
+        clip.heightProperty().bind(this.viewport.heightProperty());
+        this.viewport.setClip(clip);
+
+        // start out showing as much of the board as comfortably fits on the screen
+        Rectangle2D screen = Screen.getPrimary().getVisualBounds();
+        this.viewport.setPrefSize(Math.min(this.geometry.getBoardWidth(), screen.getWidth() * 0.8), Math.min(this.geometry.getBoardHeight(), screen.getHeight() * 0.8));
+
+        this.horizontal.setOrientation(Orientation.HORIZONTAL);
+        this.vertical.setOrientation(Orientation.VERTICAL);
+        this.pane.setBottom(this.horizontal);
+        this.pane.setRight(this.vertical);
+
+        this.viewport.widthProperty().addListener(evt -> this.layoutCells());
+        this.viewport.heightProperty().addListener(evt -> this.layoutCells());
+        this.horizontal.valueProperty().addListener(evt -> this.layoutCells());
+        this.vertical.valueProperty().addListener(evt -> this.layoutCells());
+        this.viewport.setOnScroll(this::handleScroll);
+    }
+
+    @Override
+    public Pane createBoardPane() {
+        this.layoutCells();
+        return this.pane;
+    }
+
+    @Override
+    public void refresh(ChangeJournal changes) {
+        changes.drain(this.refreshCell);
+    }
+
+    private void handleScroll(ScrollEvent evt) {
+        if (evt.isControlDown()) {
+            // zoom around the pointer, so whatever is under it stays there
+            double oldScale = this.geometry.getGuiScale();
+            this.setZoom(this.zoomSteps + (evt.getDeltaY() > 0 ? 1 : -1));
+            double factor = this.geometry.getGuiScale() / oldScale;
+            this.updateScrollRanges();
+            this.horizontal.setValue((this.horizontal.getValue() + evt.getX()) * factor - evt.getX());
+            this.vertical.setValue((this.vertical.getValue() + evt.getY()) * factor - evt.getY());
+        } else {
+            this.horizontal.setValue(this.horizontal.getValue() - evt.getDeltaX());
+            this.vertical.setValue(this.vertical.getValue() - evt.getDeltaY());
+        }
+        this.layoutCells();
+        evt.consume();
+    }
+
+    private void setZoom(int zoomSteps) {
+        this.zoomSteps = Math.max(-MAX_ZOOM_STEPS, Math.min(MAX_ZOOM_STEPS, zoomSteps));
+        double guiScale = this.board.getGuiScale() * Math.pow(ZOOM_STEP, this.zoomSteps);
+        this.geometry = new BoardGeometry(this.tiling, this.store.getWidth(), this.store.getHeight(), guiScale);
+        this.icons = IconCache.forScale(this.geometry.getGuiScale());
+    }
+
+    private void updateScrollRanges() {
+        double viewportWidth = this.viewport.getWidth();
+        double viewportHeight = this.viewport.getHeight();
+        this.horizontal.setMax(Math.max(0, this.geometry.getBoardWidth() - viewportWidth));
+        this.horizontal.setVisibleAmount(viewportWidth);
+        this.horizontal.setUnitIncrement(this.geometry.getColumnWidth());
+        this.vertical.setMax(Math.max(0, this.geometry.getBoardHeight() - viewportHeight));
+        this.vertical.setVisibleAmount(viewportHeight);
+        this.vertical.setUnitIncrement(this.geometry.getRowHeight());
+    }
+
+    /**
+     * Hands the pooled buttons out to whichever cells are inside the viewport right now.
+     */
+    private void layoutCells() {
+        this.updateScrollRanges();
+        double scrollX = this.horizontal.getValue();
+        double scrollY = this.vertical.getValue();
+
+        // cells stick out of their row and column a little for hexagons and triangles, so cover one extra on every side
+        this.firstX = Math.max(0, (int) (scrollX / this.geometry.getColumnWidth()) - 1);
+        this.firstY = Math.max(0, (int) (scrollY / this.geometry.getRowHeight()) - 1);
+        int lastX = Math.min(this.store.getWidth() - 1, (int) ((scrollX + this.viewport.getWidth()) / this.geometry.getColumnWidth()) + 1);
+        int lastY = Math.min(this.store.getHeight() - 1, (int) ((scrollY + this.viewport.getHeight()) / this.geometry.getRowHeight()) + 1);
+        this.columns = Math.max(0, lastX - this.firstX + 1);
+        this.rows = Math.max(0, lastY - this.firstY + 1);
+
+        int needed = this.columns * this.rows;
+        this.growPool(needed);
+
+        for (int slot = 0; slot < this.pool.size(); ++slot) {
+            CellButton button = this.pool.get(slot);
+            if (slot >= needed) {
+                this.slotCells[slot] = -1;
+                button.setVisible(false);
+                continue;
+            }
+            int x = this.firstX + slot % this.columns;
+            int y = this.firstY + slot / this.columns;
+            this.slotCells[slot] = this.store.indexOf(x, y);
+            this.placeButton(button, x, y, scrollX, scrollY);
+            this.updateIcon(slot);
+            button.setVisible(true);
+        }
+    }
+
+    private void growPool(int size) {
+        if (size <= this.pool.size()) {
+            return;
+        }
+        int oldSize = this.pool.size();
+        this.slotCells = Arrays.copyOf(this.slotCells, size);
+        for (int slot = oldSize; slot < size; ++slot) {
+            final int thisSlot = slot;
+            CellButton button = new CellButton();
+            ImageView icon = new ImageView();
+            button.setFocusTraversable(false);
+            button.setGraphic(icon);
+            button.setOnMousePressed(this.board::handleMouseDown);
+            button.setOnMouseReleased(evt -> {
+                this.board.handleMouseUp(evt);
+                if (this.slotCells[thisSlot] >= 0) {
+                    this.board.handleCellClick(this.slotCells[thisSlot], evt);
+                }
+            });
+            this.pool.add(button);
+            this.poolIcons.add(icon);
+            this.viewport.getChildren().add(button);
+        }
+    }
+
+    /**
+     * Sizes, shapes and positions a button the same way the cell type would for its own button.
+     */
+    private void placeButton(CellButton button, int x, int y, double scrollX, double scrollY) {
+        final double guiScale = this.geometry.getGuiScale();
+        switch (this.tiling) {
+            case HEXAGONAL: {
+                final double sideLength = guiScale * 8;
+                Point2D center = HexagonalCell.getCenterCoords(x, y, guiScale);
+                button.setMinSize(sideLength * 2, sideLength * 2);
+                button.setMaxSize(sideLength * 2, sideLength * 2);
+                button.setShape(this.hexShape);
+                button.setPickOnBounds(false);
+                button.relocate(center.getX() - sideLength * Math.sqrt(3) / 2 - scrollX, center.getY() - sideLength - scrollY);
+                break;
+            }
+            case TRIANGULAR: {
+                final double sideLength = guiScale * 16;
+                final double altitude = sideLength * Math.sqrt(3) / 2;
+                Point2D center = TriangularCell.getCenterCoords(x, y, guiScale);
+                button.setMinSize(sideLength, sideLength);
+                button.setMaxSize(sideLength, sideLength);
+                button.setShape(StandardTiling.pointsUp(x, y) ? this.upShape : this.downShape);
+                button.setPickOnBounds(false);
+                button.relocate(center.getX() - sideLength / 2 - scrollX, center.getY() - altitude / 2 - scrollY);
+                break;
+            }
+            default: {
+                final double size = guiScale * 16;
+                button.setMinSize(size, size);
+                button.setMaxSize(size, size);
+                button.relocate(size * x - scrollX, size * y - scrollY);
+                break;
+            }
+        }
+    }
+
+    private void updateIcon(int slot) {
+        this.pool.get(slot).setStyle(this.board.getHintStyle(this.slotCells[slot]));
+        String resource = this.board.getDisplayIcon(this.slotCells[slot]);
+        ImageView icon = this.poolIcons.get(slot);
+        icon.setImage(resource == null ? null : this.icons.get(resource));
+    }
+
+    private void refreshCell(int index) {
+        int x = this.store.xOf(index) - this.firstX;
+        int y = this.store.yOf(index) - this.firstY;
+        // cells outside the viewport get their icon once they scroll into view
+        if (x >= 0 && y >= 0 && x < this.columns && y < this.rows) {
+            this.updateIcon(y * this.columns + x);
+        }
+    }
+}
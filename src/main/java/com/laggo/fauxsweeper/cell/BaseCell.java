@@ -1,11 +1,18 @@
 package com.laggo.fauxsweeper.cell;
 
+import com.laggo.fauxsweeper.IconCache;
 import com.laggo.fauxsweeper.board.FauxsweeperBoard;
+import com.laggo.fauxsweeper.core.CellAction;
+import com.laggo.fauxsweeper.core.CellState;
+import com.laggo.fauxsweeper.core.CellStore;
+import com.laggo.fauxsweeper.core.CellValue;
+import com.laggo.fauxsweeper.core.ClickResult;
+import com.laggo.fauxsweeper.core.FloodFill;
+import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Pane;
 
-import java.util.HashMap;
-import java.util.Objects;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.function.Predicate;
 
@@ -15,10 +22,12 @@ import java.util.function.Predicate;
 public abstract class BaseCell implements ICell {
     private final BoardLocation location;
     private final FauxsweeperBoard<? extends ICell> board;
-    private CellValue value = CellValue.ZERO;
-    private CellState state = CellState.NO_FLAG;
-    private boolean revealed = false;
+    // the cell's actual state lives in the board's CellStore, this object is just a view onto it
+    private final CellStore store;
+    private final int index;
     private CellButton button;
+    // reused across repaints, only its image changes
+    private ImageView iconView;
     private Pane boardPane;
 
     /**
@@ -30,6 +39,8 @@ public abstract class BaseCell implements ICell {
     public BaseCell(FauxsweeperBoard<? extends ICell> board, BoardLocation location) {
         this.board = board;
         this.location = location;
+        this.store = board.getCellStore();
+        this.index = this.store.indexOf(location.getX(), location.getY());
     }
 
     @Override
@@ -42,6 +53,13 @@ public abstract class BaseCell implements ICell {
         return this.board;
     }
 
+    /**
+     * @return The index of this cell in its board's {@link CellStore}.
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
 
     /**
      * Gets display icon.
@@ -49,33 +67,7 @@ public abstract class BaseCell implements ICell {
      * @return The icon which should be used for this cell. Can be {@code null} if this cell should have no icon.
      */
     public String getDisplayIcon() {
-        if (!this.revealed) {
-            switch (this.getState()) {
-                case NO_FLAG:
-                    return "/question.png";
-                case FLAG:
-                    return "/flag.png";
-                case FLAG_POTENTIAL:
-                    return "/flag-potential.png";
-            }
-        } else {
-            if (this.getState() != CellState.NO_FLAG && this.getValue() != CellValue.MINE) {
-                // then the game has ended
-                return "/misflagged.png";
-            }
-
-            if (this.getValue() == CellValue.MINE) {
-                return (this.getBoard().getClickedMine() == this) ? "/mine-death.png" : "/mine-ceil.png";
-            }
-
-            if (this.getValue() == CellValue.ZERO) {
-                return null;
-            }
-
-            return "/open" + this.getValue().ordinal() + ".png";
-        }
-        // technically unreachable
-        return null;
+        return this.getBoard().getDisplayIcon(this.index);
     }
 
     /**
@@ -101,6 +93,24 @@ public abstract class BaseCell implements ICell {
         });
     }
 
+    @Override
+    public void updateButton() {
+        this.getButton().setStyle(this.getBoard().getHintStyle(this.index));
+        String returnedResource = this.getDisplayIcon();
+        if (returnedResource == null) {
+            this.getButton().setGraphic(null);
+            return;
+        }
+
+        if (this.iconView == null) {
+            this.iconView = new ImageView();
+        }
+        this.iconView.setImage(IconCache.forScale(this.getBoard().getGuiScale()).get(returnedResource));
+        if (this.getButton().getGraphic() != this.iconView) {
+            this.getButton().setGraphic(this.iconView);
+        }
+    }
+
     @Override
     public CellButton getButton() {
         if (this.button == null) {
@@ -136,49 +146,27 @@ public abstract class BaseCell implements ICell {
 
     @Override
     public CellValue getValue() {
-        return this.value;
+        return this.store.getValue(this.index);
     }
 
     @Override
     public void setValue(CellValue value) {
-        this.value = value;
+        this.store.setValue(this.index, value);
     }
 
     @Override
     public CellState getState() {
-        return this.state;
+        return this.store.getState(this.index);
     }
 
     @Override
     public Set<? extends ICell> getConnectedMatching(Predicate<ICell> pred, boolean includeNeighbors) {
-        HashMap<ICell, Boolean> foundSoFar = new HashMap<>();
-        this.recursiveConnectedMatching(this, foundSoFar, pred, includeNeighbors);
-        // this is technically linked to the hashset, but it'll be destroyed anyway so who cares
-        return foundSoFar.keySet();
-    }
+        FloodFill fill = this.getBoard().getGame().getFloodFill();
+        fill.fill(this.index, i -> pred.test(this.getBoard().getCellAt(i)), includeNeighbors);
 
-    /**
-     * The recursive step for the flood fill required by {@code getConnectedMatching}.
-     *
-     * @param startingCell The {@link ICell} to base this fill on.
-     * @param soFar The {@link HashMap} of cells already traversed. A missing key means the cell has not been traversed, the value {@code false} means a cell has been processed but its neighbors have not, and the value {@code true} means a cell has been traversed fully.
-     * @param pred The predicate which all cells must match in order for the flood fill to recurse over them.
-     * @param includeNeighbors Whether to include every neighbor of a cell returned by the flood fill.
-     */
-    private void recursiveConnectedMatching(ICell startingCell, HashMap<ICell, Boolean> soFar, Predicate<ICell> pred, boolean includeNeighbors) {
-        if (soFar.containsKey(startingCell)) {
-            return;
-        }
-        soFar.put(startingCell, false);
-        for (ICell neighbor : startingCell.getNeighbors()) {
-            if (pred.test(neighbor)) {
-                this.recursiveConnectedMatching(neighbor, soFar, pred, includeNeighbors);
-            } else if (includeNeighbors) {
-                // add it anyway but don't recurse
-                soFar.put(neighbor, true);
-            }
-        }
-        soFar.put(startingCell, true);
+        HashSet<ICell> ret = new HashSet<>();
+        fill.forEach(i -> ret.add(this.getBoard().getCellAt(i)));
+        return ret;
     }
 
     @Override
@@ -192,54 +180,20 @@ public abstract class BaseCell implements ICell {
 
     @Override
     public boolean isRevealed() {
-        return this.revealed;
+        return this.store.isRevealed(this.index);
     }
 
     @Override
     public void reveal() {
-        this.revealed = true;
+        this.getBoard().revealCell(this.index);
     }
 
     @Override
     public ClickResult onLeftClick() {
-        if (this.getBoard().isGameOver()) {
-            return ClickResult.INVALID;
-        }
-
-        if (this.revealed) {
-            return ClickResult.INVALID;
-        }
-
-        if (this.getState() != CellState.NO_FLAG) {
-            return ClickResult.INVALID;
-        }
-
-        if (this.getValue() == CellValue.MINE) {
-            return ClickResult.FAIL;
-        }
-
-        if (this.value != CellValue.ZERO) {
-            this.revealed = true;
-            return ClickResult.OK;
-        }
-
-        this.reveal();
-        // we are clicking a zero cell
-        for (ICell connectedCell : this.getConnectedMatching(c -> c.getValue() == CellValue.ZERO, true)) {
-            connectedCell.reveal();
-        }
-
-        return ClickResult.OK;
+        return this.getBoard().apply(this.index, CellAction.REVEAL);
     }
 
     public void onRightClick(MouseEvent evt) {
-        ICell cellTarget = Objects.requireNonNull(((CellButton) evt.getTarget()).getCell());
-        if (cellTarget.isRevealed()) {
-            return;
-        }
-        if (cellTarget.getBoard().isGameOver()) {
-            return;
-        }
-        this.state = CellState.values()[(this.getState().ordinal() + 3 + (evt.isShiftDown() ? -1 : 1)) % 3];
+        this.getBoard().apply(this.index, evt.isShiftDown() ? CellAction.CYCLE_FLAG_BACK : CellAction.CYCLE_FLAG);
     }
 }
@@ -0,0 +1,20 @@
+package com.laggo.fauxsweeper.cell;
+
+import com.laggo.fauxsweeper.board.FauxsweeperBoard;
+
+/**
+ * Creates the cell objects of a board. Usually just a constructor reference, such as {@code SquareCell::new}.
+ *
+ * @param <CellT> The type of {@link ICell} created.
+ */
+@FunctionalInterface
+public interface CellFactory<CellT extends ICell> {
+    /**
+     * Creates the cell at a certain location.
+     *
+     * @param board    The board the cell is on.
+     * @param location The location of the cell.
+     * @return The new cell.
+     */
+    CellT create(FauxsweeperBoard<? extends ICell> board, BoardLocation location);
+}
@@ -3,16 +3,11 @@ package com.laggo.fauxsweeper.cell;
 import com.laggo.fauxsweeper.Util;
 import com.laggo.fauxsweeper.board.FauxsweeperBoard;
 import javafx.geometry.Point2D;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
 import javafx.scene.shape.Polygon;
 
-import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public class HexagonalCell extends BaseCell {
     public HexagonalCell(FauxsweeperBoard<? extends ICell> board, BoardLocation location) {
@@ -20,17 +15,28 @@ public class HexagonalCell extends BaseCell {
     }
 
     private Point2D getCenterCoords() {
-        final double guiScale = this.getBoard().getGuiScale();
+        return getCenterCoords(this.getLocation().getX(), this.getLocation().getY(), this.getBoard().getGuiScale());
+    }
+
+    /**
+     * Finds where the center of a hexagonal cell lies on the board pane.
+     *
+     * @param x        The x coordinate of the cell.
+     * @param y        The y coordinate of the cell.
+     * @param guiScale The GUI scaling factor.
+     * @return The center of the cell, in pixels.
+     */
+    public static Point2D getCenterCoords(int x, int y, double guiScale) {
         final double sideLength = guiScale * 8;
 
         double xOffset =
                 // offset for the entire row
-                sideLength * Math.sqrt(3) / 2 * (this.getLocation().getY() % 2)
+                sideLength * Math.sqrt(3) / 2 * (y % 2)
                         // offset to the first center
                         + sideLength * Math.sqrt(3) / 2
                         // offset to the nth center
-                        + sideLength * Math.sqrt(3) * this.getLocation().getX();
-        double yOffset = sideLength + 1.5 * sideLength * this.getLocation().getY();
+                        + sideLength * Math.sqrt(3) * x;
+        double yOffset = sideLength + 1.5 * sideLength * y;
 
         return new Point2D(xOffset, yOffset);
     }
@@ -68,44 +74,11 @@ public class HexagonalCell extends BaseCell {
         return boardPane;
     }
 
-    @Override
-    public void updateButton() {
-        final double guiScale = this.getBoard().getGuiScale();
-
-        String returnedResource = this.getDisplayIcon();
-        if (returnedResource != null) {
-            this.getButton().setGraphic(new ImageView(new Image(Objects.requireNonNull(this.getClass().getResourceAsStream(returnedResource)), 16 * guiScale, 16 * guiScale, true, false)));
-        } else {
-            this.getButton().setGraphic(null);
-        }
-    }
-
     @Override
     public Set<? extends ICell> getNeighbors() {
-        /*
-         * Recall how cells are laid out in a hexagonal tiling:
-         * 0 1 2 3 4 5
-         *  0 1 2 3 4 5
-         * 0 1 2 3 4 5
-         *  0 1 2 3 4 5
-         */
         FauxsweeperBoard<? extends ICell> board = this.getBoard();
-        BoardLocation thisLoc = this.getLocation();
-
-        return this.getLocation().getY() % 2 == 1 ? new HashSet<>(Arrays.asList(
-                board.getCellAt(thisLoc.offsetBy(0, -1)),
-                board.getCellAt(thisLoc.offsetBy(1, -1)),
-                board.getCellAt(thisLoc.offsetBy(1, 0)),
-                board.getCellAt(thisLoc.offsetBy(1, 1)),
-                board.getCellAt(thisLoc.offsetBy(0, 1)),
-                board.getCellAt(thisLoc.offsetBy(-1, 0)))
-        ).stream().filter(Objects::nonNull).collect(Collectors.toSet()) : new HashSet<>(Arrays.asList(
-                board.getCellAt(thisLoc.offsetBy(-1, -1)),
-                board.getCellAt(thisLoc.offsetBy(0, -1)),
-                board.getCellAt(thisLoc.offsetBy(1, 0)),
-                board.getCellAt(thisLoc.offsetBy(0, 1)),
-                board.getCellAt(thisLoc.offsetBy(-1, 1)),
-                board.getCellAt(thisLoc.offsetBy(-1, 0))
-        )).stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        HashSet<ICell> ret = new HashSet<>();
+        board.getGame().forEachNeighbor(this.getIndex(), index -> ret.add(board.getCellAt(index)));
+        return ret;
     }
 }
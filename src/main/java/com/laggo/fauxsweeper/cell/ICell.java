@@ -1,6 +1,9 @@
 package com.laggo.fauxsweeper.cell;
 
 import com.laggo.fauxsweeper.board.FauxsweeperBoard;
+import com.laggo.fauxsweeper.core.CellState;
+import com.laggo.fauxsweeper.core.CellValue;
+import com.laggo.fauxsweeper.core.ClickResult;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Pane;
 
@@ -95,7 +98,7 @@ public interface ICell {
     void reveal();
 
     /**
-     * Handles what happens when this cell is clicked.
+     * Handles what happens when this cell is clicked, including winning or losing the game.
      *
      * @return The result of this click.
      */
@@ -0,0 +1,55 @@
+package com.laggo.fauxsweeper.cell;
+
+import com.laggo.fauxsweeper.core.Tiling;
+
+/**
+ * Everything needed to play on a certain kind of tiling: the rules for which cells border each other, and how to make its cells.
+ * Other tilings can be added by implementing this and listing the implementation in
+ * {@code META-INF/services/com.laggo.fauxsweeper.cell.TilingProvider}, where {@link java.util.ServiceLoader} will find it.
+ *
+ * @param <CellT> The type of {@link ICell} this tiling uses.
+ */
+public interface TilingProvider<CellT extends ICell> {
+    /**
+     * @return The name used to pick this tiling in the configuration file.
+     */
+    String getName();
+
+    /**
+     * @return The rules deciding which cells border each other.
+     */
+    Tiling getTiling();
+
+    /**
+     * @return The factory for the cells of this tiling.
+     */
+    CellFactory<CellT> getCellFactory();
+
+    /**
+     * Bundles the parts of a tiling together.
+     *
+     * @param name        The name used to pick this tiling in the configuration file.
+     * @param tiling      The rules deciding which cells border each other.
+     * @param cellFactory The factory for the cells of this tiling.
+     * @param <CellT>     The type of {@link ICell} this tiling uses.
+     * @return The new provider.
+     */
+    static <CellT extends ICell> TilingProvider<CellT> of(String name, Tiling tiling, CellFactory<CellT> cellFactory) {
+        return new TilingProvider<CellT>() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Tiling getTiling() {
+                return tiling;
+            }
+
+            @Override
+            public CellFactory<CellT> getCellFactory() {
+                return cellFactory;
+            }
+        };
+    }
+}
@@ -2,17 +2,13 @@ package com.laggo.fauxsweeper.cell;
 
 import com.laggo.fauxsweeper.Util;
 import com.laggo.fauxsweeper.board.FauxsweeperBoard;
+import com.laggo.fauxsweeper.core.StandardTiling;
 import javafx.geometry.Point2D;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
 import javafx.scene.shape.Polygon;
 
-import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public class TriangularCell extends BaseCell {
     public TriangularCell(FauxsweeperBoard<? extends ICell> board, BoardLocation location) {
@@ -20,7 +16,18 @@ public class TriangularCell extends BaseCell {
     }
 
     private Point2D getCenterCoords() {
-        final double guiScale = this.getBoard().getGuiScale();
+        return getCenterCoords(this.getLocation().getX(), this.getLocation().getY(), this.getBoard().getGuiScale());
+    }
+
+    /**
+     * Finds where the center of a triangular cell's bounding box lies on the board pane.
+     *
+     * @param x        The x coordinate of the cell.
+     * @param y        The y coordinate of the cell.
+     * @param guiScale The GUI scaling factor.
+     * @return The center of the cell's bounding box, in pixels.
+     */
+    public static Point2D getCenterCoords(int x, int y, double guiScale) {
         final double sideLength = guiScale * 16;
         final double altitude = sideLength * Math.sqrt(3) / 2;
 
@@ -28,12 +35,12 @@ public class TriangularCell extends BaseCell {
                 // offset to the first center
                 sideLength / 2
                         // offset to the nth center
-                        + sideLength * this.getLocation().getX();
+                        + sideLength * x;
         double yOffset =
                 // offset to the first center
                 altitude / 2
                         // offset to the nth center
-                        + altitude * this.getLocation().getY();
+                        + altitude * y;
 
         return new Point2D(xOffset, yOffset);
     }
@@ -51,18 +58,7 @@ public class TriangularCell extends BaseCell {
 
         Polygon tri = new Polygon();
         Point2D centerCoords = this.getCenterCoords();
-        /*
-        If we visualize the tiling, the directions the triangles point are as follows:
-        U D U D U D
-        D U D U D U  ...
-        U D U D U D
-             .
-             .
-             .
-        So, as it turns out, we can use (x + y) % 2 to determine which direction a triangle points given its location in the grid.
-         */
-
-        final double angleOffset = (this.getLocation().getX() + this.getLocation().getY()) % 2 == 0 ? Math.PI / 2 : -Math.PI / 2;
+        final double angleOffset = StandardTiling.pointsUp(this.getLocation().getX(), this.getLocation().getY()) ? Math.PI / 2 : -Math.PI / 2;
 
         Util.setPolygonSides(tri, centerCoords, sideLength, 3, angleOffset);
         button.setShape(tri);
@@ -86,29 +82,11 @@ public class TriangularCell extends BaseCell {
         return boardPane;
     }
 
-    @Override
-    public void updateButton() {
-        final double guiScale = this.getBoard().getGuiScale();
-
-        String returnedResource = this.getDisplayIcon();
-        if (returnedResource != null) {
-            this.getButton().setGraphic(new ImageView(new Image(Objects.requireNonNull(this.getClass().getResourceAsStream(returnedResource)), 16 * guiScale, 16 * guiScale, true, false)));
-        } else {
-            this.getButton().setGraphic(null);
-        }
-    }
-
     @Override
     public Set<? extends ICell> getNeighbors() {
         FauxsweeperBoard<? extends ICell> board = this.getBoard();
-        BoardLocation thisLoc = this.getLocation();
-
-        return new HashSet<>(Arrays.asList(
-                board.getCellAt(thisLoc.offsetBy(-1, 0)),
-                board.getCellAt(thisLoc.offsetBy(1, 0)),
-                (this.getLocation().getX() + this.getLocation().getY()) % 2 == 1 ?
-                        board.getCellAt(thisLoc.offsetBy(0, -1)) :
-                        board.getCellAt(thisLoc.offsetBy(0, 1))
-        )).stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        HashSet<ICell> ret = new HashSet<>();
+        board.getGame().forEachNeighbor(this.getIndex(), index -> ret.add(board.getCellAt(index)));
+        return ret;
     }
 }
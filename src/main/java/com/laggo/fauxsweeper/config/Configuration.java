@@ -1,6 +1,8 @@
 package com.laggo.fauxsweeper.config;
 
 import com.google.gson.Gson;
+import com.laggo.fauxsweeper.core.FauxsweeperGame;
+import com.laggo.fauxsweeper.core.MinePlacement;
 
 import java.io.File;
 import java.io.FileReader;
@@ -16,10 +18,23 @@ public class Configuration {
     private final boolean useSetSeed;
     private final long setSeed;
     private final double guiScale;
-    private final CellType cellType;
+    // the name of a tiling from the TilingRegistry
+    private final String cellType;
+    private final RendererType renderer;
+    private final MinePlacement minePlacement;
+    // no-guess boards are laid out by the solver on the first click; if it can't clear one within FauxsweeperGame.MAX_NO_GUESS_ATTEMPTS,
+    // the last layout is played anyway, and may need guessing
+    private final boolean noGuess;
+    // the game is saved to this file after every move, and picked up from it on the next launch
+    private final boolean autosave;
+    private final String autosaveFile;
+    // every launch writes its moves to a journal file of its own in this directory
+    private final boolean recordMoves;
+    private final String journalDirectory;
     private transient File file;
 
-    Configuration(File file, int boardWidth, int boardHeight, int mineCount, boolean timerEnabled, boolean useSetSeed, long setSeed, double guiScale, CellType cellType) {
+    Configuration(File file, int boardWidth, int boardHeight, int mineCount, boolean timerEnabled, boolean useSetSeed, long setSeed, double guiScale, String cellType, RendererType renderer, MinePlacement minePlacement, boolean noGuess,
+                  boolean autosave, String autosaveFile, boolean recordMoves, String journalDirectory) {
         this.file = file;
 
         this.boardWidth = boardWidth;
@@ -30,6 +45,13 @@ public class Configuration {
         this.setSeed = setSeed;
         this.guiScale = guiScale;
         this.cellType = cellType;
+        this.renderer = renderer;
+        this.minePlacement = minePlacement;
+        this.noGuess = noGuess;
+        this.autosave = autosave;
+        this.autosaveFile = autosaveFile;
+        this.recordMoves = recordMoves;
+        this.journalDirectory = journalDirectory;
     }
 
     public static Configuration fromFile(File file) {
@@ -55,11 +77,11 @@ public class Configuration {
     }
 
     public static Configuration defaultConfiguration(File file) {
-        return new Configuration(file, 10, 10, 10, true, false, 69420, 1.5d, CellType.SQUARE);
+        return new Configuration(file, 10, 10, 10, true, false, 69420, 1.5d, "square", RendererType.BUTTONS, MinePlacement.UNIFORM, false, true, "autosave.bin", false, "journals");
     }
 
     public boolean isValid() {
-        return this.boardWidth > 0 && this.boardHeight > 0 && this.mineCount > 0 && this.mineCount <= this.boardWidth * this.boardHeight && this.guiScale > 0 && this.cellType != null;
+        return this.boardWidth > 0 && this.boardHeight > 0 && this.mineCount > 0 && this.mineCount < this.boardWidth * this.boardHeight && this.guiScale > 0 && this.cellType != null && TilingRegistry.get(this.cellType) != null;
     }
 
     public void syncToFile() {
@@ -99,10 +121,62 @@ public class Configuration {
         return this.guiScale;
     }
 
-    public CellType getCellType() {
+    /**
+     * @return The name of the tiling to play on, which can be looked up in the {@link TilingRegistry}.
+     */
+    public String getCellType() {
         return this.cellType;
     }
 
+    public RendererType getRenderer() {
+        // configs written before this option existed don't have it
+        return this.renderer == null ? RendererType.BUTTONS : this.renderer;
+    }
+
+    public MinePlacement getMinePlacement() {
+        // configs written before this option existed keep the old placement, so their seeds still give the same boards
+        return this.minePlacement == null ? MinePlacement.LEGACY : this.minePlacement;
+    }
+
+    /**
+     * @return Whether boards get laid out so they can be cleared without guessing. Boards too crowded for that, or which the solver still can't clear
+     * after {@link FauxsweeperGame#MAX_NO_GUESS_ATTEMPTS} tries, fall back to the last layout tried, which may need guessing;
+     * {@link FauxsweeperGame#isGuaranteedNoGuess()} tells when that happened, and the HUD and the batch simulator show it.
+     */
+    public boolean isNoGuess() {
+        return this.noGuess;
+    }
+
+    /**
+     * @return Whether the game is saved after every move and picked up again on the next launch.
+     */
+    public boolean isAutosaveEnabled() {
+        return this.autosave;
+    }
+
+    /**
+     * @return The file the game is saved to.
+     */
+    public String getAutosaveFile() {
+        // configs written before this option existed don't have it
+        return this.autosaveFile == null ? "autosave.bin" : this.autosaveFile;
+    }
+
+    /**
+     * @return Whether every move gets written down, so a game can be played back with {@code --replay}.
+     */
+    public boolean isRecordingMoves() {
+        return this.recordMoves;
+    }
+
+    /**
+     * @return The directory the move journals go in, one file for every launch.
+     */
+    public String getJournalDirectory() {
+        // configs written before this option existed don't have it
+        return this.journalDirectory == null ? "journals" : this.journalDirectory;
+    }
+
     public void setFile(File file) {
         this.file = file;
     }
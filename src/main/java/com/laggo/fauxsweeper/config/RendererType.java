@@ -0,0 +1,21 @@
+package com.laggo.fauxsweeper.config;
+
+import com.google.gson.annotations.SerializedName;
+
+public enum RendererType {
+    /**
+     * Every cell is its own button. Looks and feels native, but gets slow once a board has tens of thousands of cells.
+     */
+    @SerializedName("buttons")
+    BUTTONS,
+    /**
+     * The cells inside a scrollable viewport are drawn onto a single canvas, which stays responsive for very large boards.
+     */
+    @SerializedName("canvas")
+    CANVAS,
+    /**
+     * Only the cells inside a scrollable, zoomable viewport get a button, so boards larger than the screen stay playable.
+     */
+    @SerializedName("virtual")
+    VIRTUAL
+}
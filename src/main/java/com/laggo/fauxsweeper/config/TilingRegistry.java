@@ -0,0 +1,60 @@
+package com.laggo.fauxsweeper.config;
+
+import com.laggo.fauxsweeper.cell.HexagonalCell;
+import com.laggo.fauxsweeper.cell.ICell;
+import com.laggo.fauxsweeper.cell.SquareCell;
+import com.laggo.fauxsweeper.cell.TilingProvider;
+import com.laggo.fauxsweeper.cell.TriangularCell;
+import com.laggo.fauxsweeper.core.StandardTiling;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+/**
+ * Every tiling which can be picked in the configuration file, by name.
+ * The built-in tilings are always there; any others are found through {@link ServiceLoader} the first time this class is used.
+ */
+public final class TilingRegistry {
+    private static final Map<String, TilingProvider<? extends ICell>> PROVIDERS = loadProviders();
+
+    private TilingRegistry() {
+    }
+
+    private static Map<String, TilingProvider<? extends ICell>> loadProviders() {
+        Map<String, TilingProvider<? extends ICell>> providers = new LinkedHashMap<>();
+        // these names are what older configuration files already use
+        // lambdas rather than constructor references, so the cell classes and JavaFX along with them only load once a cell is made,
+        // which lets headless code look tilings up on machines without JavaFX
+        register(providers, TilingProvider.of("square", StandardTiling.SQUARE, (board, location) -> new SquareCell(board, location)));
+        register(providers, TilingProvider.of("hexagon", StandardTiling.HEXAGONAL, (board, location) -> new HexagonalCell(board, location)));
+        register(providers, TilingProvider.of("triangle", StandardTiling.TRIANGULAR, (board, location) -> new TriangularCell(board, location)));
+        for (TilingProvider<?> provider : ServiceLoader.load(TilingProvider.class)) {
+            register(providers, provider);
+        }
+        return Collections.unmodifiableMap(providers);
+    }
+
+    private static void register(Map<String, TilingProvider<? extends ICell>> providers, TilingProvider<? extends ICell> provider) {
+        if (providers.putIfAbsent(provider.getName(), provider) != null) {
+            throw new IllegalStateException("more than one tiling is named " + provider.getName());
+        }
+    }
+
+    /**
+     * @param name The name of the tiling, as used in the configuration file.
+     * @return The tiling with that name, or {@code null} if there is none.
+     */
+    public static TilingProvider<? extends ICell> get(String name) {
+        return PROVIDERS.get(name);
+    }
+
+    /**
+     * @return The names of every known tiling, built-in ones first.
+     */
+    public static Set<String> getNames() {
+        return PROVIDERS.keySet();
+    }
+}
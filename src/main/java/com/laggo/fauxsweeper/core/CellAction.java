@@ -0,0 +1,19 @@
+package com.laggo.fauxsweeper.core;
+
+/**
+ * Something a player can do to a cell.
+ */
+public enum CellAction {
+    /**
+     * Open the cell, the same as a left click.
+     */
+    REVEAL,
+    /**
+     * Move the flag on the cell on to the next {@link CellState}, the same as a right click.
+     */
+    CYCLE_FLAG,
+    /**
+     * Move the flag on the cell back to the previous {@link CellState}, the same as a shift + right click.
+     */
+    CYCLE_FLAG_BACK
+}
@@ -1,4 +1,4 @@
-package com.laggo.fauxsweeper.cell;
+package com.laggo.fauxsweeper.core;
 
 public enum CellState {
     NO_FLAG,
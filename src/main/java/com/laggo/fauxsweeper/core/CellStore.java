@@ -0,0 +1,142 @@
+package com.laggo.fauxsweeper.core;
+
+import java.util.Arrays;
+
+/**
+ * Dense storage for the state of every cell on a board.
+ * Each cell is packed into a single byte at index {@code y * width + x}: the low four bits hold the {@link CellValue} ordinal,
+ * the next two bits hold the {@link CellState} ordinal, and the bit after that marks whether the cell has been revealed.
+ */
+public class CellStore {
+    static final int VALUE_MASK = 0b1111;
+    static final int STATE_SHIFT = 4;
+    static final int STATE_MASK = 0b11 << STATE_SHIFT;
+    static final int REVEALED_BIT = 1 << 6;
+    private static final CellValue[] VALUES = CellValue.values();
+    private static final CellState[] STATES = CellState.values();
+
+    private final int width;
+    private final int height;
+    private final byte[] cells;
+
+    /**
+     * Instantiates a new store where every cell is an unrevealed, unflagged zero.
+     *
+     * @param width  The width of the board.
+     * @param height The height of the board.
+     */
+    public CellStore(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.cells = new byte[width * height];
+    }
+
+    /**
+     * @return The width of the board.
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * @return The height of the board.
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * @return The number of cells on the board.
+     */
+    public int size() {
+        return this.cells.length;
+    }
+
+    /**
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return Whether the coordinates lie on the board.
+     */
+    public boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < this.width && y < this.height;
+    }
+
+    /**
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The index of the cell at these coordinates. The coordinates are not checked.
+     */
+    public int indexOf(int x, int y) {
+        return y * this.width + x;
+    }
+
+    /**
+     * @param index The index of a cell.
+     * @return The x coordinate of that cell.
+     */
+    public int xOf(int index) {
+        return index % this.width;
+    }
+
+    /**
+     * @param index The index of a cell.
+     * @return The y coordinate of that cell.
+     */
+    public int yOf(int index) {
+        return index / this.width;
+    }
+
+    public CellValue getValue(int index) {
+        return VALUES[this.cells[index] & VALUE_MASK];
+    }
+
+    public void setValue(int index, CellValue value) {
+        this.cells[index] = (byte) ((this.cells[index] & ~VALUE_MASK) | value.ordinal());
+    }
+
+    /**
+     * @param index The index of a cell.
+     * @return Whether that cell holds a mine.
+     */
+    public boolean isMine(int index) {
+        return (this.cells[index] & VALUE_MASK) == CellValue.MINE.ordinal();
+    }
+
+    public CellState getState(int index) {
+        return STATES[(this.cells[index] & STATE_MASK) >> STATE_SHIFT];
+    }
+
+    public void setState(int index, CellState state) {
+        this.cells[index] = (byte) ((this.cells[index] & ~STATE_MASK) | (state.ordinal() << STATE_SHIFT));
+    }
+
+    public boolean isRevealed(int index) {
+        return (this.cells[index] & REVEALED_BIT) != 0;
+    }
+
+    public void setRevealed(int index, boolean revealed) {
+        this.cells[index] = (byte) (revealed ? this.cells[index] | REVEALED_BIT : this.cells[index] & ~REVEALED_BIT);
+    }
+
+    /**
+     * @param packed A cell packed into a byte.
+     * @return Whether the byte is a cell this store could have written.
+     */
+    static boolean isValid(byte packed) {
+        return (packed & ~(VALUE_MASK | STATE_MASK | REVEALED_BIT)) == 0 && (packed & VALUE_MASK) < VALUES.length && (packed & STATE_MASK) >> STATE_SHIFT < STATES.length;
+    }
+
+    /**
+     * @return The packed cells themselves, for code which copies whole boards at once. Changes to it are not journaled.
+     */
+    byte[] bytes() {
+        return this.cells;
+    }
+
+    /**
+     * Resets every cell to an unrevealed, unflagged zero.
+     */
+    public void clear() {
+        Arrays.fill(this.cells, (byte) 0);
+    }
+}
@@ -0,0 +1,101 @@
+package com.laggo.fauxsweeper.core;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Records which cells of a board have changed since the UI was last refreshed, so only those need to be repainted.
+ * Each cell is recorded at most once no matter how often it changes in between.
+ */
+public class ChangeJournal {
+    private final int size;
+    private final long[] dirty;
+    private int[] entries = new int[64];
+    private int count = 0;
+    private boolean allDirty = false;
+
+    /**
+     * Instantiates a new journal for a board.
+     *
+     * @param size The number of cells on the board.
+     */
+    public ChangeJournal(int size) {
+        this.size = size;
+        this.dirty = new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * Records that a cell has changed.
+     *
+     * @param index The index of the cell in the {@link CellStore}.
+     */
+    public void markDirty(int index) {
+        if (this.allDirty || (this.dirty[index >>> 6] & (1L << index)) != 0) {
+            return;
+        }
+        this.dirty[index >>> 6] |= 1L << index;
+        if (this.count == this.entries.length) {
+            this.entries = Arrays.copyOf(this.entries, this.entries.length * 2);
+        }
+        this.entries[this.count++] = index;
+    }
+
+    /**
+     * Records that every cell has changed, which is cheaper than marking them one at a time.
+     */
+    public void markAllDirty() {
+        this.allDirty = true;
+    }
+
+    /**
+     * @return Whether anything has been recorded since the last drain.
+     */
+    public boolean isEmpty() {
+        return !this.allDirty && this.count == 0;
+    }
+
+    /**
+     * Runs an action on the index of every changed cell, then forgets them.
+     *
+     * @param action The action to run.
+     */
+    public void drain(IntConsumer action) {
+        this.forEach(action);
+        this.clear();
+    }
+
+    /**
+     * Runs an action on the index of every changed cell, and keeps them recorded for whoever drains the journal.
+     *
+     * @param action The action to run.
+     */
+    public void forEach(IntConsumer action) {
+        if (this.allDirty) {
+            for (int i = 0; i < this.size; ++i) {
+                action.accept(i);
+            }
+        } else {
+            for (int i = 0; i < this.count; ++i) {
+                action.accept(this.entries[i]);
+            }
+        }
+    }
+
+    /**
+     * @return Whether every cell has been recorded as changed at once.
+     */
+    public boolean isAllDirty() {
+        return this.allDirty;
+    }
+
+    /**
+     * Forgets every recorded change without visiting them.
+     */
+    public void clear() {
+        for (int i = 0; i < this.count; ++i) {
+            this.dirty[this.entries[i] >>> 6] = 0;
+        }
+        this.count = 0;
+        this.allDirty = false;
+    }
+}
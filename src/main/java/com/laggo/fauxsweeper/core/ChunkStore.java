@@ -0,0 +1,150 @@
+package com.laggo.fauxsweeper.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds the chunks an {@link InfiniteGame} no longer keeps in memory, in one file.
+ * Only what the player did to a chunk is kept, since its mines and numbers can always be worked out again from the seed:
+ * one bit per cell for whether it was revealed, and two more for its {@link CellState}.
+ * That makes every chunk {@value #RECORD_SIZE} bytes on disk, a bit over a third of what it takes in memory.
+ * <p>
+ * Every record is the chunk's key as a big-endian long followed by three bit planes of {@value InfiniteGame#CHUNK_CELLS} bits each,
+ * revealed cells first and then the low and high bit of every cell's state. A chunk which is written again goes back to its old record,
+ * so the file only grows with the number of different chunks the player has touched. Unlike a {@link SnapshotFile}, the file is not mapped,
+ * since it keeps growing for as long as the player wanders off.
+ * The file is wiped when opened, since the chunks only make sense together with the game which wrote them.
+ */
+public final class ChunkStore implements Closeable {
+    private static final int PLANE_SIZE = InfiniteGame.CHUNK_CELLS / 8;
+    public static final int RECORD_SIZE = 8 + 3 * PLANE_SIZE;
+
+    private final FileChannel channel;
+    // where in the file the record of every chunk starts
+    private final Map<Long, Long> offsets = new HashMap<>();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+
+    private ChunkStore(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a file to keep chunks in, wiping whatever it held.
+     *
+     * @param path The file.
+     * @return The open store.
+     * @throws IOException If the file can't be opened.
+     */
+    public static ChunkStore open(Path path) throws IOException {
+        return new ChunkStore(FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    /**
+     * Saves what the player did to a chunk.
+     *
+     * @param key   The key of the chunk.
+     * @param chunk The cells of the chunk. Only whether they are revealed and their state are saved.
+     * @throws IOException If the file can't be written.
+     */
+    public void write(long key, CellStore chunk) throws IOException {
+        byte[] cells = chunk.bytes();
+        this.record.clear();
+        this.record.putLong(key);
+        for (int plane = 0; plane < 3; ++plane) {
+            // revealed cells first, then the two bits of the state
+            int bit = plane == 0 ? CellStore.REVEALED_BIT : 1 << (CellStore.STATE_SHIFT + plane - 1);
+            for (int i = 0; i < cells.length; i += 8) {
+                int packed = 0;
+                for (int j = 0; j < 8; ++j) {
+                    if ((cells[i + j] & bit) != 0) {
+                        packed |= 1 << j;
+                    }
+                }
+                this.record.put((byte) packed);
+            }
+        }
+        this.record.flip();
+
+        Long offset = this.offsets.get(key);
+        if (offset == null) {
+            offset = this.channel.size();
+            this.offsets.put(key, offset);
+        }
+        long position = offset;
+        while (this.record.hasRemaining()) {
+            position += this.channel.write(this.record, position);
+        }
+    }
+
+    /**
+     * Loads what the player did to a chunk back onto its cells.
+     *
+     * @param key   The key of the chunk.
+     * @param chunk The cells of the chunk, with their mines and numbers already in place. Their state is overwritten.
+     * @return Whether the chunk was in the store. If not, the cells are left alone.
+     * @throws IOException If the file can't be read.
+     */
+    public boolean read(long key, CellStore chunk) throws IOException {
+        Long offset = this.offsets.get(key);
+        if (offset == null) {
+            return false;
+        }
+        this.record.clear();
+        long position = offset;
+        while (this.record.hasRemaining()) {
+            int read = this.channel.read(this.record, position);
+            if (read < 0) {
+                throw new IOException("the record of chunk " + key + " was cut short");
+            }
+            position += read;
+        }
+        this.record.flip();
+        if (this.record.getLong() != key) {
+            throw new IOException("the record of chunk " + key + " holds another chunk");
+        }
+
+        byte[] cells = chunk.bytes();
+        for (int i = 0; i < cells.length; ++i) {
+            cells[i] &= CellStore.VALUE_MASK;
+        }
+        for (int plane = 0; plane < 3; ++plane) {
+            int bit = plane == 0 ? CellStore.REVEALED_BIT : 1 << (CellStore.STATE_SHIFT + plane - 1);
+            for (int i = 0; i < cells.length; i += 8) {
+                int packed = this.record.get();
+                for (int j = 0; j < 8; ++j) {
+                    if ((packed & 1 << j) != 0) {
+                        cells[i + j] |= (byte) bit;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param key The key of a chunk.
+     * @return Whether the chunk is in the store.
+     */
+    public boolean contains(long key) {
+        return this.offsets.containsKey(key);
+    }
+
+    /**
+     * @return The number of chunks in the store.
+     */
+    public int size() {
+        return this.offsets.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,281 @@
+package com.laggo.fauxsweeper.core;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+
+/**
+ * A game of Fauxsweeper which any number of players or bots can click on from their own threads at once.
+ * <p>
+ * Until the first reveal, the layout can still change, so every move takes a lock and is handed to a plain {@link FauxsweeperGame}.
+ * That covers moving a mine out of the way of the first click and laying out a no-guess board.
+ * From then on the layout is fixed, and every move changes the packed cell bytes of the {@link CellStore} directly with compare-and-set.
+ * Exactly one thread wins the right to reveal a cell, and only that thread counts it and spreads a flood fill from it,
+ * so overlapping flood fills share the work without revealing anything twice.
+ * Whether the game is won or lost is decided by a single compare-and-set on one word holding both the state and the clicked mine,
+ * so a game can never end both ways at once.
+ * <p>
+ * Nothing is written to a {@link ChangeJournal} once play is lock-free, so anything showing this game has to read the store itself.
+ * Reading the store while others play is safe, and shows every cell as it was at some point.
+ */
+public class ConcurrentGame {
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final GameState[] GAME_STATES = GameState.values();
+    private static final int STATE_COUNT = CellState.values().length;
+
+    // plays the moves until the layout is final, and is never touched again after that
+    private final FauxsweeperGame setup;
+    private final ReentrantLock setupLock = new ReentrantLock();
+    private final CellStore store;
+    private final byte[] cells;
+    private final NeighborTopology topology;
+    // the game state ordinal in the low byte, and one more than the index of the clicked mine above it
+    private final AtomicLong outcome = new AtomicLong(GameState.FIRST.ordinal());
+    private final AtomicInteger unrevealedSafeCells = new AtomicInteger();
+    private final AtomicInteger flagCount = new AtomicInteger();
+    // every thread floods on its own, with its own work stack
+    private final ThreadLocal<Fill> fills = ThreadLocal.withInitial(Fill::new);
+
+    /**
+     * Instantiates a new game and places its mines.
+     *
+     * @param tiling        The way cells are arranged on the board.
+     * @param width         The width of the board.
+     * @param height        The height of the board.
+     * @param mineCount     The number of mines on the board.
+     * @param seed          The seed to use for RNG, if any.
+     * @param minePlacement How to scatter the mines.
+     * @param noGuess       Whether to rearrange the mines on the first click so the rest of the board can be cleared by logic alone.
+     */
+    public ConcurrentGame(Tiling tiling, int width, int height, int mineCount, Long seed, MinePlacement minePlacement, boolean noGuess) {
+        this.setup = new FauxsweeperGame(tiling, width, height, mineCount, seed, minePlacement, noGuess);
+        this.store = this.setup.getCellStore();
+        this.cells = this.store.bytes();
+        this.topology = this.setup.getTopology();
+    }
+
+    /**
+     * Applies a player's action to a cell. Safe to call from any number of threads at once.
+     *
+     * @param index  The index of the cell in the {@link CellStore}.
+     * @param action What to do to the cell.
+     * @return The result of the action. If several threads act on the same cell at once, only one of them gets {@link ClickResult#OK}.
+     */
+    public ClickResult apply(int index, CellAction action) {
+        if (this.getGameState() == GameState.FIRST) {
+            this.setupLock.lock();
+            try {
+                // somebody else may have made the first reveal while this thread waited
+                if (this.getGameState() == GameState.FIRST) {
+                    return this.applyDuringSetup(index, action);
+                }
+            } finally {
+                this.setupLock.unlock();
+            }
+        }
+        switch (action) {
+            case REVEAL:
+                return this.reveal(index);
+            case CYCLE_FLAG:
+                return this.cycleFlag(index, 1);
+            case CYCLE_FLAG_BACK:
+                return this.cycleFlag(index, -1);
+            default:
+                return ClickResult.INVALID;
+        }
+    }
+
+    private ClickResult applyDuringSetup(int index, CellAction action) {
+        ClickResult result = this.setup.apply(index, action);
+        this.flagCount.set(this.setup.getFlagCount());
+        if (this.setup.getGameState() != GameState.FIRST) {
+            this.unrevealedSafeCells.set(this.setup.getUnrevealedSafeCells());
+            // publishing the new state is what lets everyone else in on the finished layout
+            this.outcome.set(this.setup.getGameState().ordinal());
+        }
+        return result;
+    }
+
+    private ClickResult reveal(int index) {
+        int packed;
+        do {
+            if (this.isGameOver()) {
+                return ClickResult.INVALID;
+            }
+            packed = (byte) CELLS.getVolatile(this.cells, index);
+            if ((packed & (CellStore.REVEALED_BIT | CellStore.STATE_MASK)) != 0) {
+                return ClickResult.INVALID;
+            }
+            if ((packed & CellStore.VALUE_MASK) == CellValue.MINE.ordinal()) {
+                return this.end(GameState.LOST, index) ? ClickResult.FAIL : ClickResult.INVALID;
+            }
+        } while (!CELLS.compareAndSet(this.cells, index, (byte) packed, (byte) (packed | CellStore.REVEALED_BIT)));
+
+        int revealed = 1;
+        if ((packed & CellStore.VALUE_MASK) == CellValue.ZERO.ordinal()) {
+            revealed += this.fills.get().flood(index);
+        }
+        if (this.unrevealedSafeCells.addAndGet(-revealed) == 0) {
+            this.end(GameState.WON, -1);
+        }
+        return ClickResult.OK;
+    }
+
+    /**
+     * Tries to end the game, which only works for the first thread to try.
+     *
+     * @return Whether this thread ended the game.
+     */
+    private boolean end(GameState state, int clickedMineIndex) {
+        long ended = (long) (clickedMineIndex + 1) << 8 | state.ordinal();
+        if (!this.outcome.compareAndSet(GameState.IN_PROGRESS.ordinal(), ended)) {
+            return false;
+        }
+        for (int i = 0; i < this.cells.length; ++i) {
+            CELLS.getAndBitwiseOr(this.cells, i, (byte) CellStore.REVEALED_BIT);
+        }
+        this.unrevealedSafeCells.set(0);
+        return true;
+    }
+
+    private ClickResult cycleFlag(int index, int direction) {
+        int packed;
+        int updated;
+        do {
+            if (this.isGameOver()) {
+                return ClickResult.INVALID;
+            }
+            packed = (byte) CELLS.getVolatile(this.cells, index);
+            if ((packed & CellStore.REVEALED_BIT) != 0) {
+                return ClickResult.INVALID;
+            }
+            int state = (packed & CellStore.STATE_MASK) >> CellStore.STATE_SHIFT;
+            updated = (packed & ~CellStore.STATE_MASK) | ((state + STATE_COUNT + direction) % STATE_COUNT) << CellStore.STATE_SHIFT;
+        } while (!CELLS.compareAndSet(this.cells, index, (byte) packed, (byte) updated));
+
+        boolean wasFlagged = (packed & CellStore.STATE_MASK) != 0;
+        boolean isFlagged = (updated & CellStore.STATE_MASK) != 0;
+        if (wasFlagged != isFlagged) {
+            this.flagCount.addAndGet(isFlagged ? 1 : -1);
+        }
+        return ClickResult.OK;
+    }
+
+    /**
+     * The cells storing the state of the board. Reading it is safe while others play, but changing it is not.
+     */
+    public CellStore getCellStore() {
+        return this.store;
+    }
+
+    public NeighborTopology getTopology() {
+        return this.topology;
+    }
+
+    public int getWidth() {
+        return this.store.getWidth();
+    }
+
+    public int getHeight() {
+        return this.store.getHeight();
+    }
+
+    public int getMineCount() {
+        return this.setup.getMineCount();
+    }
+
+    public GameState getGameState() {
+        return GAME_STATES[(int) (this.outcome.get() & 0xFF)];
+    }
+
+    /**
+     * @return Whether the game has ended for any reason.
+     */
+    public boolean isGameOver() {
+        GameState state = this.getGameState();
+        return state == GameState.WON || state == GameState.LOST;
+    }
+
+    /**
+     * @return The number of cells without a mine which are yet to be revealed. The game is won once this reaches zero.
+     */
+    public int getUnrevealedSafeCells() {
+        switch (this.getGameState()) {
+            case FIRST:
+                return this.store.size() - this.getMineCount();
+            case WON:
+            case LOST:
+                // a fill which had started before the game ended may still take its cells off the count afterwards
+                return 0;
+            default:
+                return this.unrevealedSafeCells.get();
+        }
+    }
+
+    /**
+     * @return The number of cells carrying either kind of flag.
+     */
+    public int getFlagCount() {
+        return this.flagCount.get();
+    }
+
+    /**
+     * @return The index of the mine which ended the game, or -1 if no mine has been clicked.
+     */
+    public int getClickedMineIndex() {
+        return (int) (this.outcome.get() >>> 8) - 1;
+    }
+
+    /**
+     * One thread's flood fill, which only goes on from cells the thread itself managed to reveal.
+     */
+    private final class Fill implements IntConsumer {
+        private int[] stack = new int[64];
+        private int size = 0;
+        private int revealed = 0;
+
+        /**
+         * Reveals everything the zero at {@code start} opens up, which this thread has just revealed itself.
+         *
+         * @return The number of cells this thread revealed on the way.
+         */
+        int flood(int start) {
+            this.revealed = 0;
+            this.size = 0;
+            this.push(start);
+            while (this.size > 0) {
+                ConcurrentGame.this.topology.forEachNeighbor(this.stack[--this.size], this);
+            }
+            return this.revealed;
+        }
+
+        @Override
+        public void accept(int neighbor) {
+            byte[] cells = ConcurrentGame.this.cells;
+            int packed;
+            do {
+                packed = (byte) CELLS.getVolatile(cells, neighbor);
+                if ((packed & CellStore.REVEALED_BIT) != 0) {
+                    // somebody got here first, and carries on from here if it's a zero
+                    return;
+                }
+                // flags don't stop a flood fill, the same as in a single player game
+            } while (!CELLS.compareAndSet(cells, neighbor, (byte) packed, (byte) (packed | CellStore.REVEALED_BIT)));
+            this.revealed++;
+            if ((packed & CellStore.VALUE_MASK) == CellValue.ZERO.ordinal()) {
+                this.push(neighbor);
+            }
+        }
+
+        private void push(int index) {
+            if (this.size == this.stack.length) {
+                this.stack = Arrays.copyOf(this.stack, this.size * 2);
+            }
+            this.stack[this.size++] = index;
+        }
+    }
+}
@@ -0,0 +1,698 @@
+package com.laggo.fauxsweeper.core;
+
+import java.util.Random;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * The rules of a game of Fauxsweeper, without any UI. Games are played by feeding it {@link CellAction}s,
+ * so this works the same with or without a display attached.
+ * Anything which shows the game can find out what to repaint through {@link #getChanges()}.
+ * A game is not safe to use from several threads at once.
+ */
+public class FauxsweeperGame {
+    private static final CellValue[] CELL_VALUES = CellValue.values();
+    private static final CellState[] CELL_STATES = CellState.values();
+    /**
+     * A no-guess layout gets moved around this many times at most before the game settles for whatever it has.
+     */
+    public static final int MAX_NO_GUESS_ATTEMPTS = 1000;
+
+    private final Tiling tiling;
+    private final NeighborTopology topology;
+    private final int width;
+    private final int height;
+    private final int mineCount;
+    private final SeedTrackingRandom rand;
+    // the seed the current layout was drawn from, so a saved or recorded game can draw the same layout again
+    private long seed;
+    private final MinePlacement minePlacement;
+    private final boolean noGuess;
+    // whether the solver cleared the current layout, as opposed to every attempt failing and the last one being kept
+    private boolean guaranteedNoGuess;
+    private final CellStore store;
+    private final FloodFill floodFill;
+    private final ChangeJournal changes;
+    // kept around so mine bookkeeping doesn't allocate a lambda for every mine
+    private final IntConsumer incrementNeighbor = this::incrementNeighbor;
+    private final IntConsumer decrementNeighbor = this::decrementNeighbor;
+    private final IntConsumer countNeighborMine = this::countNeighborMine;
+    private final IntConsumer addMine = this::addMine;
+    private int neighborMines;
+    private GameState gameState = GameState.FIRST;
+    private int unrevealedSafeCells;
+    private int flagCount;
+    private int clickedMineIndex = -1;
+    // only built once a no-guess game gets its first click
+    private Solver solver;
+    private int[] candidates;
+    // only built once something asks for the chance of mines
+    private ProbabilitySolver probabilitySolver;
+    private MoveListener moveListener;
+
+    /**
+     * Instantiates a new game and places its mines with {@link MinePlacement#UNIFORM}.
+     *
+     * @param tiling    The way cells are arranged on the board.
+     * @param width     The width of the board.
+     * @param height    The height of the board.
+     * @param mineCount The number of mines on the board.
+     * @param seed      The seed to use for RNG, if any.
+     */
+    public FauxsweeperGame(Tiling tiling, int width, int height, int mineCount, Long seed) {
+        this(tiling, width, height, mineCount, seed, MinePlacement.UNIFORM);
+    }
+
+    /**
+     * Instantiates a new game and places its mines.
+     *
+     * @param tiling        The way cells are arranged on the board.
+     * @param width         The width of the board.
+     * @param height        The height of the board.
+     * @param mineCount     The number of mines on the board.
+     * @param seed          The seed to use for RNG, if any.
+     * @param minePlacement How to scatter the mines.
+     */
+    public FauxsweeperGame(Tiling tiling, int width, int height, int mineCount, Long seed, MinePlacement minePlacement) {
+        this(tiling, width, height, mineCount, seed, minePlacement, false);
+    }
+
+    /**
+     * Instantiates a new game and places its mines.
+     *
+     * @param tiling        The way cells are arranged on the board.
+     * @param width         The width of the board.
+     * @param height        The height of the board.
+     * @param mineCount     The number of mines on the board.
+     * @param seed          The seed to use for RNG, if any.
+     * @param minePlacement How to scatter the mines.
+     * @param noGuess       Whether to rearrange the mines on the first click so the rest of the board can be cleared by logic alone.
+     */
+    public FauxsweeperGame(Tiling tiling, int width, int height, int mineCount, Long seed, MinePlacement minePlacement, boolean noGuess) {
+        if (mineCount < 0 || mineCount >= width * height) {
+            throw new IllegalArgumentException("a " + width + "x" + height + " board cannot hold " + mineCount + " mines");
+        }
+        this.tiling = tiling;
+        this.width = width;
+        this.height = height;
+        this.mineCount = mineCount;
+        this.seed = (seed == null) ? new Random().nextLong() : seed;
+        this.rand = new SeedTrackingRandom(this.seed);
+        this.minePlacement = minePlacement;
+        this.noGuess = noGuess;
+        this.store = new CellStore(width, height);
+        this.topology = NeighborTopology.of(tiling, width, height);
+        this.floodFill = new FloodFill(this.topology);
+        this.changes = new ChangeJournal(width * height);
+
+        this.placeMines();
+    }
+
+    /**
+     * Wipes the board and places a fresh set of mines, continuing the same random sequence.
+     * A board created with a set seed therefore deals the same boards in the same order every time, just like it always has.
+     * The seed {@link #getSeed()} reports afterwards is wherever that sequence had got to, so the layout can still be drawn again on its own.
+     */
+    public void newGame() {
+        this.seed = this.rand.currentSeed();
+        this.reset();
+    }
+
+    /**
+     * Wipes the board and places a fresh set of mines as if the game had just been created with another seed,
+     * so the layout doesn't depend on any game played on this board before.
+     *
+     * @param seed The seed to use for RNG.
+     */
+    public void newGame(long seed) {
+        this.seed = seed;
+        this.rand.setSeed(seed);
+        this.reset();
+    }
+
+    private void reset() {
+        this.store.clear();
+        this.changes.markAllDirty();
+        this.clickedMineIndex = -1;
+        this.gameState = GameState.FIRST;
+        this.flagCount = 0;
+        this.guaranteedNoGuess = false;
+
+        this.placeMines();
+        if (this.moveListener != null) {
+            this.moveListener.onNewGame(this);
+        }
+    }
+
+    /**
+     * Takes on a game which was saved earlier, once its cells have been copied into the {@link CellStore}.
+     * Everything else the game keeps track of is worked out again from the cells.
+     *
+     * @param seed              The seed the saved layout was drawn from.
+     * @param randomPosition    Where the saved game's random sequence had got to, see {@link #getRandomPosition()}.
+     * @param gameState         The stage the saved game was in.
+     * @param clickedMineIndex  The mine which ended the saved game, or -1.
+     * @param guaranteedNoGuess Whether the saved layout was cleared by the solver, see {@link #isGuaranteedNoGuess()}.
+     */
+    void restore(long seed, long randomPosition, GameState gameState, int clickedMineIndex, boolean guaranteedNoGuess) {
+        this.seed = seed;
+        this.guaranteedNoGuess = guaranteedNoGuess;
+        // not the layout seed, or the next game would deal the resumed layout all over again
+        this.rand.setSeed(randomPosition);
+        this.gameState = gameState;
+        this.clickedMineIndex = clickedMineIndex;
+        this.flagCount = 0;
+        this.unrevealedSafeCells = 0;
+        for (int i = 0; i < this.store.size(); ++i) {
+            if (this.store.getState(i) != CellState.NO_FLAG) {
+                this.flagCount++;
+            }
+            if (!this.store.isRevealed(i) && !this.store.isMine(i)) {
+                this.unrevealedSafeCells++;
+            }
+        }
+        this.changes.markAllDirty();
+    }
+
+    private void placeMines() {
+        this.minePlacement.placeMines(this.store, this.rand, this.mineCount, this.addMine, this.topology);
+        // not every placement goes through addMine, but on a fresh board every cell besides the mines is safe and unrevealed
+        this.unrevealedSafeCells = this.store.size() - this.mineCount;
+    }
+
+    /**
+     * Applies a player's action to a cell.
+     *
+     * @param x      The x coordinate of the cell.
+     * @param y      The y coordinate of the cell.
+     * @param action What to do to the cell.
+     * @return The result of the action. Actions on cells off the board are {@link ClickResult#INVALID}.
+     */
+    public ClickResult apply(int x, int y, CellAction action) {
+        if (!this.store.contains(x, y)) {
+            return ClickResult.INVALID;
+        }
+        return this.apply(this.store.indexOf(x, y), action);
+    }
+
+    /**
+     * Applies a player's action to a cell.
+     *
+     * @param index  The index of the cell in the {@link CellStore}.
+     * @param action What to do to the cell.
+     * @return The result of the action.
+     */
+    public ClickResult apply(int index, CellAction action) {
+        if (this.moveListener != null) {
+            this.moveListener.onAction(index, action);
+        }
+        switch (action) {
+            case REVEAL:
+                return this.reveal(index);
+            case CYCLE_FLAG:
+                return this.cycleFlag(index, 1);
+            case CYCLE_FLAG_BACK:
+                return this.cycleFlag(index, -1);
+            default:
+                return ClickResult.INVALID;
+        }
+    }
+
+    private ClickResult reveal(int index) {
+        if (this.noGuess && this.gameState == GameState.FIRST && this.store.getState(index) == CellState.NO_FLAG) {
+            this.layOutWithoutGuessing(index);
+        }
+        ClickResult result = this.open(index);
+        if (result == ClickResult.FAIL) {
+            if (this.gameState == GameState.FIRST) {
+                // the first click is never a mine
+                this.gameState = GameState.IN_PROGRESS;
+                this.secretlyMoveMine(index);
+                result = this.open(index);
+            } else {
+                this.gameState = GameState.LOST;
+                this.clickedMineIndex = index;
+                this.revealAll();
+                return result;
+            }
+        }
+        if (result == ClickResult.OK) {
+            this.gameState = GameState.IN_PROGRESS;
+            if (this.unrevealedSafeCells == 0) {
+                this.gameState = GameState.WON;
+                this.revealAll();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Opens a single cell, and everything around it if it borders no mines. Does not decide whether the game is won or lost.
+     */
+    private ClickResult open(int index) {
+        if (this.isGameOver() || this.store.isRevealed(index) || this.store.getState(index) != CellState.NO_FLAG) {
+            return ClickResult.INVALID;
+        }
+
+        CellValue value = this.store.getValue(index);
+        if (value == CellValue.MINE) {
+            return ClickResult.FAIL;
+        }
+
+        if (value != CellValue.ZERO) {
+            this.revealCell(index);
+            return ClickResult.OK;
+        }
+
+        this.floodFill.fill(index, i -> this.store.getValue(i) == CellValue.ZERO, true);
+        this.revealFloodFill();
+        return ClickResult.OK;
+    }
+
+    private ClickResult cycleFlag(int index, int direction) {
+        if (this.isGameOver() || this.store.isRevealed(index)) {
+            return ClickResult.INVALID;
+        }
+        this.setCellState(index, CELL_STATES[(this.store.getState(index).ordinal() + CELL_STATES.length + direction) % CELL_STATES.length]);
+        return ClickResult.OK;
+    }
+
+    /**
+     * Places a mine on a cell and bumps the number on every neighbor which is not a mine itself.
+     * Nothing happens if the cell already holds a mine.
+     *
+     * @param index The index of the cell in the {@link CellStore}.
+     */
+    public void addMine(int index) {
+        if (this.store.isMine(index)) {
+            return;
+        }
+        if (!this.store.isRevealed(index)) {
+            this.unrevealedSafeCells--;
+        }
+        this.store.setValue(index, CellValue.MINE);
+        this.changes.markDirty(index);
+        this.forEachNeighbor(index, this.incrementNeighbor);
+    }
+
+    /**
+     * Takes the mine off a cell, numbering that cell and lowering the number on every neighbor which is not a mine itself.
+     * Nothing happens if the cell holds no mine.
+     *
+     * @param index The index of the cell in the {@link CellStore}.
+     */
+    public void removeMine(int index) {
+        if (!this.store.isMine(index)) {
+            return;
+        }
+        this.neighborMines = 0;
+        this.forEachNeighbor(index, this.countNeighborMine);
+        this.store.setValue(index, CELL_VALUES[this.neighborMines]);
+        this.changes.markDirty(index);
+        this.forEachNeighbor(index, this.decrementNeighbor);
+        if (!this.store.isRevealed(index)) {
+            this.unrevealedSafeCells++;
+        }
+    }
+
+    /**
+     * Reveals a cell, keeping the count of unrevealed safe cells in sync.
+     *
+     * @param index The index of the cell in the {@link CellStore}.
+     */
+    public void revealCell(int index) {
+        if (this.revealQuietly(index)) {
+            this.unrevealedSafeCells--;
+        }
+    }
+
+    /**
+     * Reveals every cell found by the last run of this game's {@link FloodFill}, keeping the count of unrevealed safe cells in sync.
+     */
+    public void revealFloodFill() {
+        int newlyRevealed = 0;
+        for (int i = 0; i < this.floodFill.size(); ++i) {
+            if (this.revealQuietly(this.floodFill.get(i))) {
+                newlyRevealed++;
+            }
+        }
+        this.unrevealedSafeCells -= newlyRevealed;
+    }
+
+    /**
+     * @param index The index of the cell in the {@link CellStore}.
+     * @return Whether this revealed a cell which holds no mine.
+     */
+    private boolean revealQuietly(int index) {
+        if (this.store.isRevealed(index)) {
+            return false;
+        }
+        this.store.setRevealed(index, true);
+        this.changes.markDirty(index);
+        return !this.store.isMine(index);
+    }
+
+    private void revealAll() {
+        for (int i = 0; i < this.store.size(); ++i) {
+            this.store.setRevealed(i, true);
+        }
+        this.changes.markAllDirty();
+        this.unrevealedSafeCells = 0;
+    }
+
+    /**
+     * Changes the flag on a cell, keeping the count of flagged cells in sync.
+     *
+     * @param index The index of the cell in the {@link CellStore}.
+     * @param state The new {@link CellState}.
+     */
+    public void setCellState(int index, CellState state) {
+        boolean wasFlagged = this.store.getState(index) != CellState.NO_FLAG;
+        boolean isFlagged = state != CellState.NO_FLAG;
+        this.store.setState(index, state);
+        this.changes.markDirty(index);
+        if (wasFlagged != isFlagged) {
+            this.flagCount += isFlagged ? 1 : -1;
+        }
+    }
+
+    private void incrementNeighbor(int index) {
+        if (!this.store.isMine(index)) {
+            this.store.setValue(index, CELL_VALUES[this.store.getValue(index).ordinal() + 1]);
+            this.changes.markDirty(index);
+        }
+    }
+
+    private void decrementNeighbor(int index) {
+        if (!this.store.isMine(index)) {
+            this.store.setValue(index, CELL_VALUES[this.store.getValue(index).ordinal() - 1]);
+            this.changes.markDirty(index);
+        }
+    }
+
+    private void countNeighborMine(int index) {
+        if (this.store.isMine(index)) {
+            this.neighborMines++;
+        }
+    }
+
+    private void secretlyMoveMine(int oldMineIndex) {
+        int newMineIndex = this.minePlacement.findSafeCell(this.store, this.rand);
+        this.moveMine(oldMineIndex, newMineIndex);
+        if (this.moveListener != null) {
+            this.moveListener.onMineMoved(oldMineIndex, newMineIndex);
+        }
+    }
+
+    private void moveMine(int oldMineIndex, int newMineIndex) {
+        // add first so the old location counts the new mine if they happen to border each other
+        this.addMine(newMineIndex);
+        this.removeMine(oldMineIndex);
+    }
+
+    /**
+     * Rearranges the mines so the first click opens an area with no mines around it, and everything else can be worked out from there.
+     * Whenever the {@link Solver} gets stuck, the mines it got stuck next to are moved somewhere it hasn't reached yet and it tries again.
+     * Boards too crowded for that to work out, or which are still stuck after {@link #MAX_NO_GUESS_ATTEMPTS}, keep their last layout,
+     * which still opens up around the first click but may need guessing later on. {@link #isGuaranteedNoGuess()} tells which happened.
+     *
+     * @param start The index of the first cell to be revealed.
+     */
+    private void layOutWithoutGuessing(int start) {
+        this.floodFill.fill(start, i -> false, true);
+        int[] opening = new int[this.floodFill.size()];
+        for (int i = 0; i < opening.length; ++i) {
+            opening[i] = this.floodFill.get(i);
+        }
+        if (this.mineCount > this.store.size() - opening.length) {
+            return;
+        }
+        for (int cell : opening) {
+            if (this.store.isMine(cell)) {
+                int newMineIndex;
+                do {
+                    newMineIndex = this.minePlacement.findSafeCell(this.store, this.rand);
+                } while (contains(opening, newMineIndex));
+                this.moveMine(cell, newMineIndex);
+            }
+        }
+
+        if (this.solver == null) {
+            this.solver = new Solver(this.topology);
+            this.candidates = new int[this.store.size()];
+        }
+        for (int attempt = 0; attempt < MAX_NO_GUESS_ATTEMPTS; ++attempt) {
+            if (this.solver.solve(this.store, start, this.mineCount)) {
+                this.guaranteedNoGuess = true;
+                return;
+            }
+
+            int free = this.collectCells(cell -> !this.store.isMine(cell) && !this.solver.isResolved(cell) && !this.solver.isFrontier(cell));
+            boolean moved = false;
+            for (int i = 0; i < this.store.size() && free > 0; ++i) {
+                if (this.store.isMine(i) && this.solver.isFrontier(i)) {
+                    int picked = this.rand.nextInt(free);
+                    this.moveMine(i, this.candidates[picked]);
+                    this.candidates[picked] = this.candidates[--free];
+                    moved = true;
+                }
+            }
+            if (!moved) {
+                // there is nowhere left the solver hasn't reached, so swap a stuck mine into the part it already cleared instead
+                int oldMineIndex = this.pickCell(cell -> this.store.isMine(cell) && !this.solver.isResolved(cell));
+                int newMineIndex = this.pickCell(cell -> !this.store.isMine(cell) && this.solver.isResolved(cell) && !contains(opening, cell));
+                if (oldMineIndex == -1 || newMineIndex == -1) {
+                    return;
+                }
+                this.moveMine(oldMineIndex, newMineIndex);
+            }
+        }
+    }
+
+    /**
+     * Lists every cell matching a predicate in {@link #candidates}.
+     *
+     * @return The number of cells found.
+     */
+    private int collectCells(IntPredicate pred) {
+        int count = 0;
+        for (int i = 0; i < this.store.size(); ++i) {
+            if (pred.test(i)) {
+                this.candidates[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The index of a random cell matching a predicate, or -1 if there is none.
+     */
+    private int pickCell(IntPredicate pred) {
+        int picked = -1;
+        int matches = 0;
+        for (int i = 0; i < this.store.size(); ++i) {
+            // reservoir sampling, so the board only needs walking once
+            if (pred.test(i) && this.rand.nextInt(++matches) == 0) {
+                picked = i;
+            }
+        }
+        return picked;
+    }
+
+    private static boolean contains(int[] cells, int index) {
+        for (int cell : cells) {
+            if (cell == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Works out how likely every hidden cell is to hold a mine, going only by what the player can see.
+     * This is quick enough to redo after every move on boards up to expert size, see {@link ProbabilitySolver} for how it scales.
+     *
+     * @return For every cell, the chance of it holding a mine, from 0 to 1. Revealed cells are {@link Double#NaN}.
+     */
+    public double[] getMineProbabilities() {
+        if (this.probabilitySolver == null) {
+            this.probabilitySolver = new ProbabilitySolver(this.topology);
+        }
+        return this.probabilitySolver.solve(this.store, this.mineCount);
+    }
+
+    /**
+     * Suggests which cell to reveal next.
+     *
+     * @return The index of the hidden, unflagged cell least likely to hold a mine, or -1 if the game is over or every hidden cell is flagged.
+     */
+    public int getHint() {
+        if (this.isGameOver()) {
+            return -1;
+        }
+        double[] probabilities = this.getMineProbabilities();
+        int best = -1;
+        for (int i = 0; i < probabilities.length; ++i) {
+            if (!this.store.isRevealed(i) && this.store.getState(i) == CellState.NO_FLAG && (best == -1 || probabilities[i] < probabilities[best])) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Visits the index of every cell bordering another, without allocating.
+     *
+     * @param index  The index of the cell in the {@link CellStore}.
+     * @param action The action to run on every neighboring index.
+     */
+    public void forEachNeighbor(int index, IntConsumer action) {
+        this.topology.forEachNeighbor(index, action);
+    }
+
+    /**
+     * @return The dense storage holding the state of every cell.
+     */
+    public CellStore getCellStore() {
+        return this.store;
+    }
+
+    /**
+     * @return The journal of cells changed since whatever shows this game last caught up.
+     */
+    public ChangeJournal getChanges() {
+        return this.changes;
+    }
+
+    /**
+     * @return The flood fill shared by everything on this board.
+     */
+    public FloodFill getFloodFill() {
+        return this.floodFill;
+    }
+
+    public Tiling getTiling() {
+        return this.tiling;
+    }
+
+    /**
+     * @return Which cells border each other on this board.
+     */
+    public NeighborTopology getTopology() {
+        return this.topology;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    public int getMineCount() {
+        return this.mineCount;
+    }
+
+    public MinePlacement getMinePlacement() {
+        return this.minePlacement;
+    }
+
+    /**
+     * @return Whether the mines get rearranged on the first click so the board never needs a guess. This is only what was asked for;
+     * see {@link #isGuaranteedNoGuess()} for whether it worked out.
+     */
+    public boolean isNoGuess() {
+        return this.noGuess;
+    }
+
+    /**
+     * @return Whether the current layout is known to be clearable without guessing, which only happens once the first click of a no-guess game
+     * has been laid out by the {@link Solver}. A no-guess game whose layout the solver never managed to clear plays on with a layout which may need
+     * guessing, and says so here.
+     */
+    public boolean isGuaranteedNoGuess() {
+        return this.guaranteedNoGuess;
+    }
+
+    public GameState getGameState() {
+        return this.gameState;
+    }
+
+    /**
+     * Sets what hears about every move made in this game, such as a {@link MoveJournal}.
+     *
+     * @param moveListener The listener, or {@code null} for none.
+     */
+    public void setMoveListener(MoveListener moveListener) {
+        this.moveListener = moveListener;
+    }
+
+    /**
+     * @return What hears about every move made in this game, or {@code null} for nothing.
+     */
+    public MoveListener getMoveListener() {
+        return this.moveListener;
+    }
+
+    /**
+     * @return The seed the current layout was drawn from.
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * @return A seed which carries on the game's random sequence from where it is now, further along than {@link #getSeed()}
+     * once mines have been laid and moved, so a resumed game goes on to deal the same boards as one which was never saved.
+     */
+    long getRandomPosition() {
+        return this.rand.currentSeed();
+    }
+
+    /**
+     * @return Whether the game has ended for any reason.
+     */
+    public boolean isGameOver() {
+        return this.gameState == GameState.WON || this.gameState == GameState.LOST;
+    }
+
+    /**
+     * @return The number of cells without a mine which are yet to be revealed. The game is won once this reaches zero.
+     */
+    public int getUnrevealedSafeCells() {
+        return this.unrevealedSafeCells;
+    }
+
+    /**
+     * @return The number of cells carrying either kind of flag.
+     */
+    public int getFlagCount() {
+        return this.flagCount;
+    }
+
+    /**
+     * @return The index of the mine which ended the game, or -1 if no mine has been clicked.
+     */
+    public int getClickedMineIndex() {
+        return this.clickedMineIndex;
+    }
+
+    /**
+     * @param xRay Whether to ignore the state of the game and forcibly show the state of every cell.
+     * @return The board state as an ASCII table.
+     */
+    public String dump(boolean xRay) {
+        StringBuilder builder = new StringBuilder();
+        for (int x = 0; x < this.width; ++x) {
+            for (int y = 0; y < this.height; y++) {
+                int index = this.store.indexOf(x, y);
+                char actualState = CellValue.asChar(this.store.getValue(index));
+                builder.append((this.store.isRevealed(index) || xRay) ? actualState : '?');
+                builder.append(" ");
+            }
+            builder.append("\n");
+        }
+        return builder.toString();
+    }
+}
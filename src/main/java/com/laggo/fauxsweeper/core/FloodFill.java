@@ -0,0 +1,114 @@
+package com.laggo.fauxsweeper.core;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * An iterative flood fill over cell indices. Instead of recursing once per cell, it walks an explicit work queue,
+ * and keeps its visited bitset and queue around between fills so that repeated fills on the same board do not allocate.
+ * A single instance is not safe to use from several threads at once.
+ */
+public class FloodFill {
+    private final NeighborTopology topology;
+    private final long[] visited;
+    private final IntConsumer visitNeighbor = this::visitNeighbor;
+    // every cell found so far, in the order it was found; doubles as the work queue
+    private int[] found = new int[64];
+    private int foundCount = 0;
+    private IntPredicate pred;
+    private boolean includeNeighbors;
+
+    /**
+     * Instantiates a new flood fill for boards of a certain shape.
+     *
+     * @param topology Which cells border each other on the board.
+     */
+    public FloodFill(NeighborTopology topology) {
+        this.topology = topology;
+        this.visited = new long[(topology.getWidth() * topology.getHeight() + 63) >>> 6];
+    }
+
+    /**
+     * Finds every cell connected to {@code start} where all cells in between fulfill {@code pred}. The starting cell is always part of the result
+     * and always has its neighbors examined, whether it matches {@code pred} or not.
+     * The result stays available through {@link #size()} and {@link #get(int)} until the next fill.
+     *
+     * @param start            The index of the cell to start from.
+     * @param pred             The predicate which all cells must match in order for the fill to continue through them.
+     * @param includeNeighbors Whether to also include all cells bordering the cells found by the fill.
+     * @return The number of cells found.
+     */
+    public int fill(int start, IntPredicate pred, boolean includeNeighbors) {
+        this.clear();
+        this.pred = pred;
+        this.includeNeighbors = includeNeighbors;
+
+        this.add(start);
+        for (int head = 0; head < this.foundCount; ++head) {
+            int current = this.found[head];
+            // cells which don't match were only added as neighbors, so the fill stops there
+            if (head == 0 || pred.test(current)) {
+                this.topology.forEachNeighbor(current, this.visitNeighbor);
+            }
+        }
+
+        this.pred = null;
+        return this.foundCount;
+    }
+
+    /**
+     * @return The number of cells found by the last fill.
+     */
+    public int size() {
+        return this.foundCount;
+    }
+
+    /**
+     * @param i The position in the result, from 0 up to {@link #size()}.
+     * @return The index of the cell at that position.
+     */
+    public int get(int i) {
+        return this.found[i];
+    }
+
+    /**
+     * Runs an action on the index of every cell found by the last fill.
+     *
+     * @param action The action to run.
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < this.foundCount; ++i) {
+            action.accept(this.found[i]);
+        }
+    }
+
+    private void visitNeighbor(int neighbor) {
+        if ((this.visited[neighbor >>> 6] & (1L << neighbor)) != 0) {
+            return;
+        }
+        if (this.includeNeighbors || this.pred.test(neighbor)) {
+            this.add(neighbor);
+        }
+    }
+
+    private void add(int index) {
+        this.visited[index >>> 6] |= 1L << index;
+        if (this.foundCount == this.found.length) {
+            this.found = Arrays.copyOf(this.found, this.found.length * 2);
+        }
+        this.found[this.foundCount++] = index;
+    }
+
+    private void clear() {
+        // only the bits set by the last fill need clearing, which is cheaper than wiping the whole bitset for small fills
+        if (this.foundCount < this.visited.length) {
+            for (int i = 0; i < this.foundCount; ++i) {
+                this.visited[this.found[i] >>> 6] = 0;
+            }
+        } else {
+            Arrays.fill(this.visited, 0);
+        }
+        this.foundCount = 0;
+    }
+}
@@ -1,4 +1,4 @@
-package com.laggo.fauxsweeper.board;
+package com.laggo.fauxsweeper.core;
 
 public enum GameState {
     FIRST,
@@ -0,0 +1,608 @@
+package com.laggo.fauxsweeper.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * A game of Fauxsweeper on a board with no edges, which is only ever made up as far as the player looks.
+ * <p>
+ * The plane is split into chunks of {@value #CHUNK_SIZE} by {@value #CHUNK_SIZE} cells, each held in its own {@link CellStore}.
+ * The mines of a chunk only depend on the seed and where the chunk is, so any chunk can be made up again at any time, in any order,
+ * and always comes out the same. A chunk is only made once a move or the viewport reaches it. Chunks which haven't been used for a while
+ * are evicted, least recently used first, once more than a set number of them are in memory; whatever the player did to them
+ * goes to a {@link ChunkStore} and comes back from there when they are needed again. Chunks the player never touched are simply
+ * dropped, and made up again from the seed.
+ * <p>
+ * Cells are addressed by their x and y coordinates, which may be negative, and lie on the plane as long as both are within
+ * {@value #LIMIT} of zero. Any {@link Tiling} whose cells only border cells at most one step away works, which covers every
+ * {@link StandardTiling}; the tiling is asked once for the neighbors of a cell at every combination of odd and even coordinates,
+ * and those are used everywhere.
+ * <p>
+ * There is no winning, only seeing how far one gets. The first cell revealed always opens up an area, as no mine is ever placed on it or
+ * around it. Flood fills spread into neighboring chunks as they reach them, making those up along the way.
+ * A single move reveals at most {@value #MAX_FILL_ZEROS} zeros; on boards sparse enough for an area to go on forever,
+ * whatever is left carries on with every later move. A game is not safe to use from several threads at once.
+ */
+public class InfiniteGame implements Closeable {
+    public static final int CHUNK_SHIFT = 5;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    public static final int CHUNK_CELLS = CHUNK_SIZE * CHUNK_SIZE;
+    /**
+     * How far from zero cells may lie, in either direction, so nothing ever overflows.
+     */
+    public static final int LIMIT = 1 << 30;
+    /**
+     * The most zeros a single move reveals before leaving the rest of a flood fill for later moves.
+     */
+    public static final int MAX_FILL_ZEROS = 1 << 16;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final CellValue[] CELL_VALUES = CellValue.values();
+    private static final CellState[] CELL_STATES = CellState.values();
+
+    private final Tiling tiling;
+    private final long seed;
+    private final int minesPerChunk;
+    // pairs of x and y offsets to every neighbor, for each parity (x & 1) | (y & 1) << 1 of a cell's coordinates
+    private final int[][] neighborOffsets = new int[4][];
+    private final int maxLoadedChunks;
+    private final Map<Long, Chunk> chunks = new LinkedHashMap<>(64, 0.75f, true);
+    // the mines of every chunk looked at since the last move or viewport change, since numbering a chunk needs all the chunks around it too
+    private final Map<Long, long[]> layouts = new HashMap<>();
+    private final ChunkStore store;
+    // the chunk looked up last, since cells looked up one after another almost always share one
+    private long lastKey;
+    private Chunk lastChunk;
+    // zeros already revealed by a flood fill whose neighbors are yet to be revealed, packed with cellOf
+    private long[] pending = new long[64];
+    private int pendingCount = 0;
+    private GameState gameState = GameState.FIRST;
+    private int startX;
+    private int startY;
+    // the cells around the first cell revealed which never hold a mine, as x + 1 + (y + 1) * 3 relative to it
+    private final boolean[] opening = new boolean[9];
+    private int clickedMineX;
+    private int clickedMineY;
+    private long revealedSafeCells;
+    private long flagCount;
+    private long generatedChunks;
+    private long evictedChunks;
+
+    /**
+     * Instantiates a new game. Nothing is made up until the first move or viewport reaches it.
+     *
+     * @param tiling          The way cells are arranged on the plane.
+     * @param mineDensity     The share of cells holding a mine, which is rounded to a whole number of mines in every chunk.
+     * @param seed            The seed to use for RNG, if any.
+     * @param maxLoadedChunks How many chunks to keep in memory between moves. This should cover at least the viewport.
+     * @param chunkFile       The file to keep evicted chunks in, which is wiped first.
+     * @throws IOException If the file can't be opened.
+     */
+    public InfiniteGame(Tiling tiling, double mineDensity, Long seed, int maxLoadedChunks, Path chunkFile) throws IOException {
+        this.minesPerChunk = (int) Math.round(mineDensity * CHUNK_CELLS);
+        if (this.minesPerChunk <= 0 || this.minesPerChunk >= CHUNK_CELLS) {
+            throw new IllegalArgumentException("a mine density of " + mineDensity + " leaves " + this.minesPerChunk + " mines in every chunk");
+        }
+        if (maxLoadedChunks <= 0) {
+            throw new IllegalArgumentException("at least one chunk has to fit in memory");
+        }
+        this.tiling = tiling;
+        this.seed = (seed == null) ? new Random().nextLong() : seed;
+        this.maxLoadedChunks = maxLoadedChunks;
+
+        for (int parity = 0; parity < 4; ++parity) {
+            // a cell in the middle of a 5x5 board with the same odd and even coordinates, so every neighbor lies on the board
+            int x = 2 + (parity & 1);
+            int y = 2 + (parity >> 1);
+            int[] offsets = new int[16];
+            int[] count = new int[1];
+            tiling.forEachNeighbor(5, 5, x, y, neighbor -> {
+                int offsetX = neighbor % 5 - x;
+                int offsetY = neighbor / 5 - y;
+                if (Math.abs(offsetX) > 1 || Math.abs(offsetY) > 1 || count[0] == offsets.length) {
+                    throw new IllegalArgumentException("cells of " + tiling + " border cells more than one step away");
+                }
+                offsets[count[0]++] = offsetX;
+                offsets[count[0]++] = offsetY;
+            });
+            this.neighborOffsets[parity] = Arrays.copyOf(offsets, count[0]);
+        }
+
+        this.store = ChunkStore.open(chunkFile);
+    }
+
+    /**
+     * Applies a player's action to a cell. Chunks which are no longer needed are evicted afterwards.
+     *
+     * @param x      The x coordinate of the cell.
+     * @param y      The y coordinate of the cell.
+     * @param action What to do to the cell.
+     * @return The result of the action. Actions on cells off the plane are {@link ClickResult#INVALID}.
+     * @throws UncheckedIOException If an evicted chunk can't be read or written.
+     */
+    public ClickResult apply(int x, int y, CellAction action) {
+        if (!contains(x, y)) {
+            return ClickResult.INVALID;
+        }
+        ClickResult result;
+        switch (action) {
+            case REVEAL:
+                result = this.reveal(x, y);
+                break;
+            case CYCLE_FLAG:
+                result = this.cycleFlag(x, y, 1);
+                break;
+            case CYCLE_FLAG_BACK:
+                result = this.cycleFlag(x, y, -1);
+                break;
+            default:
+                result = ClickResult.INVALID;
+                break;
+        }
+        // whatever is left of an earlier flood fill carries on too
+        this.fill();
+        this.evictColdChunks();
+        return result;
+    }
+
+    private ClickResult reveal(int x, int y) {
+        if (this.isGameOver()) {
+            return ClickResult.INVALID;
+        }
+        Chunk chunk = this.chunkAt(x, y);
+        int index = localIndex(x, y);
+        if (chunk.cells.isRevealed(index) || chunk.cells.getState(index) != CellState.NO_FLAG) {
+            return ClickResult.INVALID;
+        }
+        if (this.gameState == GameState.FIRST) {
+            this.start(x, y);
+        }
+
+        if (chunk.cells.isMine(index)) {
+            this.gameState = GameState.LOST;
+            this.clickedMineX = x;
+            this.clickedMineY = y;
+            chunk.cells.setRevealed(index, true);
+            chunk.dirty = true;
+            return ClickResult.FAIL;
+        }
+        this.revealSafe(chunk, index, x, y);
+        return ClickResult.OK;
+    }
+
+    /**
+     * Clears the mines off the first cell revealed and around it, and numbers every chunk made so far again to match.
+     */
+    private void start(int x, int y) {
+        this.startX = x;
+        this.startY = y;
+        this.opening[4] = true;
+        int[] offsets = this.neighborOffsets[parity(x, y)];
+        for (int i = 0; i < offsets.length; i += 2) {
+            this.opening[offsets[i] + 1 + (offsets[i + 1] + 1) * 3] = true;
+        }
+        this.gameState = GameState.IN_PROGRESS;
+        for (Chunk chunk : this.chunks.values()) {
+            this.number(chunk);
+        }
+    }
+
+    private void revealSafe(Chunk chunk, int index, int x, int y) {
+        chunk.cells.setRevealed(index, true);
+        chunk.dirty = true;
+        this.revealedSafeCells++;
+        if (chunk.cells.getValue(index) == CellValue.ZERO) {
+            this.push(cellOf(x, y));
+        }
+    }
+
+    /**
+     * Reveals the neighbors of every pending zero, and the neighbors of every zero found that way, up to {@link #MAX_FILL_ZEROS} of them.
+     */
+    private void fill() {
+        for (int budget = MAX_FILL_ZEROS; budget > 0 && this.pendingCount > 0; --budget) {
+            long cell = this.pending[--this.pendingCount];
+            int x = xOf(cell);
+            int y = yOf(cell);
+            int[] offsets = this.neighborOffsets[parity(x, y)];
+            for (int i = 0; i < offsets.length; i += 2) {
+                int neighborX = x + offsets[i];
+                int neighborY = y + offsets[i + 1];
+                if (!contains(neighborX, neighborY)) {
+                    continue;
+                }
+                Chunk chunk = this.chunkAt(neighborX, neighborY);
+                int index = localIndex(neighborX, neighborY);
+                // flags don't stop a flood fill, and nothing bordering a zero is a mine
+                if (!chunk.cells.isRevealed(index)) {
+                    this.revealSafe(chunk, index, neighborX, neighborY);
+                }
+            }
+        }
+    }
+
+    private void push(long cell) {
+        if (this.pendingCount == this.pending.length) {
+            this.pending = Arrays.copyOf(this.pending, this.pendingCount * 2);
+        }
+        this.pending[this.pendingCount++] = cell;
+    }
+
+    private ClickResult cycleFlag(int x, int y, int direction) {
+        if (this.isGameOver()) {
+            return ClickResult.INVALID;
+        }
+        Chunk chunk = this.chunkAt(x, y);
+        int index = localIndex(x, y);
+        if (chunk.cells.isRevealed(index)) {
+            return ClickResult.INVALID;
+        }
+        CellState state = chunk.cells.getState(index);
+        CellState next = CELL_STATES[(state.ordinal() + CELL_STATES.length + direction) % CELL_STATES.length];
+        chunk.cells.setState(index, next);
+        chunk.dirty = true;
+        if ((state != CellState.NO_FLAG) != (next != CellState.NO_FLAG)) {
+            this.flagCount += next != CellState.NO_FLAG ? 1 : -1;
+        }
+        return ClickResult.OK;
+    }
+
+    /**
+     * Makes sure every chunk overlapping a rectangle of cells is in memory, such as whatever part of the plane is on screen,
+     * and counts them as just used so they are the last to be evicted.
+     *
+     * @param minX The smallest x coordinate in the rectangle.
+     * @param minY The smallest y coordinate in the rectangle.
+     * @param maxX The largest x coordinate in the rectangle.
+     * @param maxY The largest y coordinate in the rectangle.
+     * @throws UncheckedIOException If an evicted chunk can't be read or written.
+     */
+    public void touch(int minX, int minY, int maxX, int maxY) {
+        int minChunkX = Math.max(minX, 1 - LIMIT) >> CHUNK_SHIFT;
+        int minChunkY = Math.max(minY, 1 - LIMIT) >> CHUNK_SHIFT;
+        int maxChunkX = Math.min(maxX, LIMIT - 1) >> CHUNK_SHIFT;
+        int maxChunkY = Math.min(maxY, LIMIT - 1) >> CHUNK_SHIFT;
+        for (int chunkY = minChunkY; chunkY <= maxChunkY; ++chunkY) {
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; ++chunkX) {
+                this.chunk(chunkX, chunkY);
+            }
+        }
+        this.evictColdChunks();
+    }
+
+    /**
+     * Gets the cells of a chunk, making it up or bringing it back if it isn't in memory.
+     * Reading cells this way is meant for drawing them; changing them is not tracked, and is lost once the chunk is evicted.
+     * The chunk stays in memory until the next move or viewport change evicts it.
+     *
+     * @param chunkX The x coordinate of the chunk, which is the x coordinate of its cells shifted right by {@value #CHUNK_SHIFT}.
+     * @param chunkY The y coordinate of the chunk.
+     * @return The cells of the chunk, row by row.
+     * @throws UncheckedIOException If the chunk can't be read.
+     */
+    public CellStore getChunk(int chunkX, int chunkY) {
+        return this.chunk(chunkX, chunkY).cells;
+    }
+
+    private Chunk chunkAt(int x, int y) {
+        return this.chunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+    }
+
+    private Chunk chunk(int chunkX, int chunkY) {
+        long key = chunkKey(chunkX, chunkY);
+        if (this.lastChunk != null && this.lastKey == key) {
+            return this.lastChunk;
+        }
+        Chunk chunk = this.chunks.get(key);
+        if (chunk == null) {
+            chunk = new Chunk(chunkX, chunkY);
+            this.number(chunk);
+            this.generatedChunks++;
+            try {
+                this.store.read(key, chunk.cells);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.chunks.put(key, chunk);
+        }
+        this.lastKey = key;
+        this.lastChunk = chunk;
+        return chunk;
+    }
+
+    /**
+     * Writes the mines and numbers of a chunk, leaving whatever the player did to it alone.
+     */
+    private void number(Chunk chunk) {
+        // every cell can border cells of the chunks all around, so their mines are needed too
+        long[][] layouts = new long[9][];
+        for (int offsetY = -1; offsetY <= 1; ++offsetY) {
+            for (int offsetX = -1; offsetX <= 1; ++offsetX) {
+                layouts[offsetX + 1 + (offsetY + 1) * 3] = this.layout(chunk.chunkX + offsetX, chunk.chunkY + offsetY);
+            }
+        }
+        int baseX = chunk.chunkX << CHUNK_SHIFT;
+        int baseY = chunk.chunkY << CHUNK_SHIFT;
+        for (int index = 0; index < CHUNK_CELLS; ++index) {
+            int x = baseX + (index & CHUNK_MASK);
+            int y = baseY + (index >> CHUNK_SHIFT);
+            if (this.isMine(layouts, chunk, x, y)) {
+                chunk.cells.setValue(index, CellValue.MINE);
+                continue;
+            }
+            int mines = 0;
+            int[] offsets = this.neighborOffsets[parity(x, y)];
+            for (int i = 0; i < offsets.length; i += 2) {
+                if (this.isMine(layouts, chunk, x + offsets[i], y + offsets[i + 1])) {
+                    mines++;
+                }
+            }
+            chunk.cells.setValue(index, CELL_VALUES[mines]);
+        }
+    }
+
+    /**
+     * @param layouts The mines of a chunk and every chunk around it.
+     * @return Whether a cell within one step of the chunk holds a mine.
+     */
+    private boolean isMine(long[][] layouts, Chunk chunk, int x, int y) {
+        if (!contains(x, y) || this.inOpening(x, y)) {
+            return false;
+        }
+        long[] layout = layouts[(x >> CHUNK_SHIFT) - chunk.chunkX + 1 + ((y >> CHUNK_SHIFT) - chunk.chunkY + 1) * 3];
+        int index = localIndex(x, y);
+        return (layout[index >>> 6] & 1L << index) != 0;
+    }
+
+    private boolean inOpening(int x, int y) {
+        if (this.gameState == GameState.FIRST) {
+            return false;
+        }
+        int offsetX = x - this.startX;
+        int offsetY = y - this.startY;
+        return Math.abs(offsetX) <= 1 && Math.abs(offsetY) <= 1 && this.opening[offsetX + 1 + (offsetY + 1) * 3];
+    }
+
+    /**
+     * @return The mines of a chunk, scattered again only if they haven't been since the last move or viewport change.
+     */
+    private long[] layout(int chunkX, int chunkY) {
+        long key = chunkKey(chunkX, chunkY);
+        long[] layout = this.layouts.get(key);
+        if (layout == null) {
+            layout = this.layMines(key);
+            this.layouts.put(key, layout);
+        }
+        return layout;
+    }
+
+    /**
+     * Scatters the mines of a chunk, as they would be if nothing was cleared around the first cell revealed.
+     *
+     * @param key The key of the chunk, see {@link #chunkKey(int, int)}.
+     * @return A bitset of the cells holding a mine.
+     */
+    private long[] layMines(long key) {
+        long[] layout = new long[CHUNK_CELLS / 64];
+        SplittableRandom rand = new SplittableRandom(mix(this.seed ^ mix(key)));
+        // Floyd's algorithm, as in MinePlacement.UNIFORM, so dense chunks take no longer than sparse ones
+        for (int candidateLimit = CHUNK_CELLS - this.minesPerChunk; candidateLimit < CHUNK_CELLS; ++candidateLimit) {
+            int candidate = rand.nextInt(candidateLimit + 1);
+            int index = (layout[candidate >>> 6] & 1L << candidate) != 0 ? candidateLimit : candidate;
+            layout[index >>> 6] |= 1L << index;
+        }
+        return layout;
+    }
+
+    /**
+     * Evicts the least recently used chunks until no more than the set number are in memory, saving any the player touched.
+     * This never happens in the middle of a move, so chunks can be held on to while one is being made.
+     */
+    private void evictColdChunks() {
+        Iterator<Chunk> iterator = this.chunks.values().iterator();
+        while (this.chunks.size() > this.maxLoadedChunks && iterator.hasNext()) {
+            Chunk chunk = iterator.next();
+            if (chunk.dirty) {
+                try {
+                    this.store.write(chunkKey(chunk.chunkX, chunk.chunkY), chunk.cells);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            iterator.remove();
+            this.evictedChunks++;
+        }
+        this.lastChunk = null;
+        this.layouts.clear();
+    }
+
+    /**
+     * @param x The x coordinate of a cell.
+     * @param y The y coordinate of the cell.
+     * @return Whether the cell lies on the plane.
+     */
+    public static boolean contains(int x, int y) {
+        return x > -LIMIT && x < LIMIT && y > -LIMIT && y < LIMIT;
+    }
+
+    /**
+     * @param x The x coordinate of a cell.
+     * @param y The y coordinate of the cell.
+     * @return Both coordinates packed into one number, x in the high half.
+     */
+    public static long cellOf(int x, int y) {
+        return (long) x << 32 | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param cell A cell packed by {@link #cellOf(int, int)}.
+     * @return The x coordinate of that cell.
+     */
+    public static int xOf(long cell) {
+        return (int) (cell >> 32);
+    }
+
+    /**
+     * @param cell A cell packed by {@link #cellOf(int, int)}.
+     * @return The y coordinate of that cell.
+     */
+    public static int yOf(long cell) {
+        return (int) cell;
+    }
+
+    /**
+     * @param chunkX The x coordinate of a chunk.
+     * @param chunkY The y coordinate of the chunk.
+     * @return The key the chunk is kept under, in memory and in the {@link ChunkStore}.
+     */
+    public static long chunkKey(int chunkX, int chunkY) {
+        return cellOf(chunkX, chunkY);
+    }
+
+    /**
+     * @param x The x coordinate of a cell.
+     * @param y The y coordinate of the cell.
+     * @return The index of the cell in the {@link CellStore} of its chunk.
+     */
+    public static int localIndex(int x, int y) {
+        return (y & CHUNK_MASK) << CHUNK_SHIFT | (x & CHUNK_MASK);
+    }
+
+    private static int parity(int x, int y) {
+        return (x & 1) | (y & 1) << 1;
+    }
+
+    // the finalizer of SplittableRandom, so chunks next to each other get unrelated mines
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public CellValue getValue(int x, int y) {
+        return this.chunkAt(x, y).cells.getValue(localIndex(x, y));
+    }
+
+    public CellState getState(int x, int y) {
+        return this.chunkAt(x, y).cells.getState(localIndex(x, y));
+    }
+
+    public boolean isRevealed(int x, int y) {
+        return this.chunkAt(x, y).cells.isRevealed(localIndex(x, y));
+    }
+
+    public Tiling getTiling() {
+        return this.tiling;
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    public int getMinesPerChunk() {
+        return this.minesPerChunk;
+    }
+
+    public GameState getGameState() {
+        return this.gameState;
+    }
+
+    /**
+     * @return Whether a mine has been clicked. There is no other way for the game to end.
+     */
+    public boolean isGameOver() {
+        return this.gameState == GameState.LOST;
+    }
+
+    /**
+     * @return The x coordinate of the mine which ended the game. Only meaningful once the game is over.
+     */
+    public int getClickedMineX() {
+        return this.clickedMineX;
+    }
+
+    /**
+     * @return The y coordinate of the mine which ended the game. Only meaningful once the game is over.
+     */
+    public int getClickedMineY() {
+        return this.clickedMineY;
+    }
+
+    /**
+     * @return The number of cells without a mine revealed so far, which is the closest thing this game has to a score.
+     */
+    public long getRevealedSafeCells() {
+        return this.revealedSafeCells;
+    }
+
+    /**
+     * @return The number of cells carrying either kind of flag.
+     */
+    public long getFlagCount() {
+        return this.flagCount;
+    }
+
+    /**
+     * @return Whether every flood fill has finished, as opposed to some being left for later moves.
+     */
+    public boolean isSettled() {
+        return this.pendingCount == 0;
+    }
+
+    /**
+     * @return The number of chunks in memory.
+     */
+    public int getLoadedChunkCount() {
+        return this.chunks.size();
+    }
+
+    /**
+     * @return The number of chunks in the {@link ChunkStore}.
+     */
+    public int getStoredChunkCount() {
+        return this.store.size();
+    }
+
+    /**
+     * @return The number of times a chunk was made up or brought back into memory.
+     */
+    public long getGeneratedChunkCount() {
+        return this.generatedChunks;
+    }
+
+    /**
+     * @return The number of times a chunk was evicted from memory.
+     */
+    public long getEvictedChunkCount() {
+        return this.evictedChunks;
+    }
+
+    /**
+     * Closes the file evicted chunks are kept in. The game can't be played on afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        this.store.close();
+    }
+
+    private static final class Chunk {
+        private final int chunkX;
+        private final int chunkY;
+        private final CellStore cells = new CellStore(CHUNK_SIZE, CHUNK_SIZE);
+        // whether the player changed anything since it was made or brought back
+        private boolean dirty;
+
+        private Chunk(int chunkX, int chunkY) {
+            this.chunkX = chunkX;
+            this.chunkY = chunkY;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.laggo.fauxsweeper.core;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * How mines are scattered over a new board. Every way is deterministic for a given seed, but they lay out different boards from the same seed.
+ */
+public enum MinePlacement {
+    /**
+     * Picks every mine in a single random draw using Floyd's sampling algorithm, so placement takes time proportional to the number of mines
+     * however crowded the board is.
+     */
+    @SerializedName("uniform")
+    UNIFORM {
+        @Override
+        public void placeMines(CellStore store, Random rand, int count, IntConsumer addMine, NeighborTopology topology) {
+            // Floyd's algorithm picks a uniformly random set of distinct cells, and the store already knows which cells are taken
+            int size = store.size();
+            for (int candidateLimit = size - count; candidateLimit < size; ++candidateLimit) {
+                int candidate = rand.nextInt(candidateLimit + 1);
+                addMine.accept(store.isMine(candidate) ? candidateLimit : candidate);
+            }
+        }
+
+        @Override
+        public int findSafeCell(CellStore store, Random rand) {
+            int size = store.size();
+            // a few guesses are almost always enough, unless nearly the whole board is mines
+            for (int attempt = 0; attempt < 8; ++attempt) {
+                int candidate = rand.nextInt(size);
+                if (!store.isMine(candidate)) {
+                    return candidate;
+                }
+            }
+            // otherwise count the safe cells and pick one of them, which takes two passes over the board at most
+            int safeCells = 0;
+            for (int i = 0; i < size; ++i) {
+                if (!store.isMine(i)) {
+                    safeCells++;
+                }
+            }
+            if (safeCells == 0) {
+                throw new IllegalStateException("there is no cell without a mine");
+            }
+            int remaining = rand.nextInt(safeCells);
+            for (int i = 0; i < size; ++i) {
+                if (!store.isMine(i) && remaining-- == 0) {
+                    return i;
+                }
+            }
+            // unreachable, the count above found this many
+            return -1;
+        }
+    },
+    /**
+     * Splits the board into row stripes spread over every core, where each stripe picks its own mines with Floyd's algorithm
+     * from its own split of one {@link SplittableRandom}, and then numbers its own cells.
+     * Every stripe gets its share of the mines, in proportion to its size and rounded down, and the mines left over go to randomly picked stripes
+     * one each. That spreads mines a little more evenly than {@link #UNIFORM}, which is no different to play.
+     * The stripes, their generators and their shares are all worked out up front, so the board only depends on the seed and never on how many cores
+     * did the work. This is the fastest way to set up boards with millions of cells.
+     */
+    @SerializedName("parallel")
+    PARALLEL {
+        @Override
+        public void placeMines(CellStore store, Random rand, int count, IntConsumer addMine, NeighborTopology topology) {
+            int size = store.size();
+            int stripeCells = STRIPE_ROWS * store.getWidth();
+            int stripes = (size + stripeCells - 1) / stripeCells;
+
+            // the game's Random only seeds this, so starting over still follows from the original seed
+            SplittableRandom splittableRand = new SplittableRandom(rand.nextLong());
+            int[] shares = new int[stripes];
+            int left = count;
+            for (int stripe = 0; stripe < stripes; ++stripe) {
+                shares[stripe] = (int) ((long) count * stripeSize(store, stripe) / size);
+                left -= shares[stripe];
+            }
+            // fewer left over than there are stripes, and a stripe never fills up from one more, as the board is never all mines
+            for (int candidateLimit = stripes - left; candidateLimit < stripes; ++candidateLimit) {
+                int candidate = splittableRand.nextInt(candidateLimit + 1);
+                // a stripe which already got one extra is one past its rounded share, so take the limit instead, as Floyd's algorithm does
+                shares[shares[candidate] > (long) count * stripeSize(store, candidate) / size ? candidateLimit : candidate]++;
+            }
+            SplittableRandom[] stripeRands = new SplittableRandom[stripes];
+            for (int stripe = 0; stripe < stripes; ++stripe) {
+                stripeRands[stripe] = splittableRand.split();
+            }
+
+            // every stripe only marks mines among its own cells
+            IntStream.range(0, stripes).parallel().forEach(stripe -> placeStripe(store, stripe, shares[stripe], stripeRands[stripe]));
+            // every stripe only writes its own cells, and only reads whether its neighbors are mines, which nothing changes any more
+            IntStream.range(0, stripes).parallel().forEach(stripe -> numberStripe(store, topology, stripe));
+        }
+
+        @Override
+        public int findSafeCell(CellStore store, Random rand) {
+            return UNIFORM.findSafeCell(store, rand);
+        }
+    },
+    /**
+     * Draws random cells until it finds one without a mine, the way Fauxsweeper always has.
+     * This is only here so seeds from older versions keep producing the same boards: it slows to a crawl on crowded boards.
+     * Configuration files which predate the choice use this.
+     */
+    @SerializedName("legacy")
+    LEGACY {
+        @Override
+        public void placeMines(CellStore store, Random rand, int count, IntConsumer addMine, NeighborTopology topology) {
+            int potentialIndex;
+            while (count > 0) {
+                potentialIndex = store.indexOf(rand.nextInt(store.getWidth()), rand.nextInt(store.getHeight()));
+                if (!store.isMine(potentialIndex)) {
+                    addMine.accept(potentialIndex);
+                    count--;
+                }
+            }
+        }
+
+        @Override
+        public int findSafeCell(CellStore store, Random rand) {
+            int index;
+            do {
+                index = store.indexOf(rand.nextInt(store.getWidth()), rand.nextInt(store.getHeight()));
+            } while (store.isMine(index));
+            return index;
+        }
+    };
+
+    // the number of rows placed and numbered by each parallel task; fixed, so that the work is split the same way on every machine
+    private static final int STRIPE_ROWS = 64;
+    private static final CellValue[] CELL_VALUES = CellValue.values();
+
+    /**
+     * Places mines on a board and numbers every other cell.
+     *
+     * @param store    The cells of the board, which must not hold any mines yet.
+     * @param rand     The source of randomness.
+     * @param count    The number of mines to add.
+     * @param addMine  The action which puts a mine on a cell and numbers its neighbors, given its index.
+     *                 Placements which number the whole board themselves skip this and write to the store directly.
+     * @param topology Which cells border each other on the board.
+     */
+    public abstract void placeMines(CellStore store, Random rand, int count, IntConsumer addMine, NeighborTopology topology);
+
+    /**
+     * Picks a random cell without a mine, for a mine to be moved to.
+     *
+     * @param store The cells of the board, which must have at least one cell without a mine.
+     * @param rand  The source of randomness.
+     * @return The index of the picked cell.
+     */
+    public abstract int findSafeCell(CellStore store, Random rand);
+
+    private static int stripeSize(CellStore store, int stripe) {
+        int start = stripe * STRIPE_ROWS * store.getWidth();
+        return Math.min(store.size(), start + STRIPE_ROWS * store.getWidth()) - start;
+    }
+
+    private static void placeStripe(CellStore store, int stripe, int count, SplittableRandom rand) {
+        int start = stripe * STRIPE_ROWS * store.getWidth();
+        int size = stripeSize(store, stripe);
+        for (int candidateLimit = size - count; candidateLimit < size; ++candidateLimit) {
+            int candidate = start + rand.nextInt(candidateLimit + 1);
+            store.setValue(store.isMine(candidate) ? start + candidateLimit : candidate, CellValue.MINE);
+        }
+    }
+
+    private static void numberStripe(CellStore store, NeighborTopology topology, int stripe) {
+        int start = stripe * STRIPE_ROWS * store.getWidth();
+        int end = Math.min(store.size(), start + STRIPE_ROWS * store.getWidth());
+        int[] neighborMines = new int[1];
+        IntConsumer countNeighborMine = neighbor -> {
+            if (store.isMine(neighbor)) {
+                neighborMines[0]++;
+            }
+        };
+        for (int i = start; i < end; ++i) {
+            if (!store.isMine(i)) {
+                neighborMines[0] = 0;
+                topology.forEachNeighbor(i, countNeighborMine);
+                store.setValue(i, CELL_VALUES[neighborMines[0]]);
+            }
+        }
+    }
+}
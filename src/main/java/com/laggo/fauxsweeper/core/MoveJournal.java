@@ -0,0 +1,160 @@
+package com.laggo.fauxsweeper.core;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes down every move made in a game, so it can be played back later by a {@link MoveReplay}.
+ * A game is fully decided by its seed and settings, so only those are written when it starts, followed by the player's actions.
+ * Mines moved out of the way of the first click are written too, so a replay can tell if it has drifted from what really happened.
+ * <p>
+ * Everything is written as unsigned LEB128 varints, so most moves take two or three bytes. The file starts with {@link #MAGIC}
+ * and a version byte, and from then on is only ever appended to. Every record starts with one varint, whose low two bits say what it is:
+ * <ul>
+ *     <li>0 to 2: the {@link CellAction} with that ordinal, applied to the cell whose index is in the rest of the bits</li>
+ *     <li>3 with 0 in the rest of the bits: a new game, followed by its width, height, mine count, seed, {@link MinePlacement} ordinal,
+ *     1 if it is a no-guess game or 0 otherwise, and the length and UTF-8 bytes of its tiling's name</li>
+ *     <li>3 with 1 in the rest of the bits: a mine moved away from the first click, followed by where it was and where it went</li>
+ * </ul>
+ * A journal is not safe to use from several threads at once.
+ */
+public final class MoveJournal implements MoveListener, Closeable, Flushable {
+    public static final int VERSION = 1;
+    static final byte[] MAGIC = {'F', 'X', 'M', 'J'};
+    static final int CONTROL = 3;
+    static final int NEW_GAME = 0;
+    static final int MINE_MOVED = 1;
+
+    private final OutputStream out;
+    private final byte[] tilingName;
+    // whether the current game has been written from its start, since a game joined half way through can't be played back
+    private boolean recording = false;
+
+    /**
+     * Starts a new journal at the beginning of a stream.
+     *
+     * @param out        Where to write the journal.
+     * @param tilingName The name of the tiling the games are played on, as used in the configuration file.
+     * @throws IOException If the stream can't be written to.
+     */
+    public MoveJournal(OutputStream out, String tilingName) throws IOException {
+        this(out, tilingName, true);
+    }
+
+    private MoveJournal(OutputStream out, String tilingName, boolean writeHeader) throws IOException {
+        this.out = out;
+        this.tilingName = tilingName.getBytes(StandardCharsets.UTF_8);
+        if (writeHeader) {
+            out.write(MAGIC);
+            out.write(VERSION);
+        }
+    }
+
+    /**
+     * Opens a journal file to add more games to the end of it, creating it if needed.
+     *
+     * @param path       The journal file.
+     * @param tilingName The name of the tiling the games are played on, as used in the configuration file.
+     * @return The journal, which should be closed once done with.
+     * @throws IOException If the file can't be opened, or is something other than a journal.
+     */
+    public static MoveJournal append(Path path, String tilingName) throws IOException {
+        boolean fresh = !Files.exists(path) || Files.size(path) == 0;
+        if (!fresh) {
+            try (InputStream in = Files.newInputStream(path)) {
+                byte[] header = new byte[MAGIC.length + 1];
+                if (in.readNBytes(header, 0, header.length) != header.length || !Arrays.equals(header, 0, MAGIC.length, MAGIC, 0, MAGIC.length)
+                        || header[MAGIC.length] != VERSION) {
+                    throw new IOException(path + " is not a move journal this version can add to");
+                }
+            }
+        }
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        return new MoveJournal(out, tilingName, fresh);
+    }
+
+    /**
+     * Writes down every move made in a game from now on. If the game has already been played, it is only written down from its next new game.
+     *
+     * @param game The game to follow.
+     */
+    public void follow(FauxsweeperGame game) {
+        game.setMoveListener(this);
+        this.recording = false;
+        if (game.getGameState() == GameState.FIRST && game.getFlagCount() == 0) {
+            this.onNewGame(game);
+        }
+    }
+
+    @Override
+    public void onNewGame(FauxsweeperGame game) {
+        try {
+            this.writeVarint(NEW_GAME << 2 | CONTROL);
+            this.writeVarint(game.getWidth());
+            this.writeVarint(game.getHeight());
+            this.writeVarint(game.getMineCount());
+            this.writeVarint(game.getSeed());
+            this.writeVarint(game.getMinePlacement().ordinal());
+            this.writeVarint(game.isNoGuess() ? 1 : 0);
+            this.writeVarint(this.tilingName.length);
+            this.out.write(this.tilingName);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.recording = true;
+    }
+
+    @Override
+    public void onAction(int index, CellAction action) {
+        if (!this.recording) {
+            return;
+        }
+        try {
+            this.writeVarint((long) index << 2 | action.ordinal());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void onMineMoved(int from, int to) {
+        if (!this.recording) {
+            return;
+        }
+        try {
+            this.writeVarint(MINE_MOVED << 2 | CONTROL);
+            this.writeVarint(from);
+            this.writeVarint(to);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            this.out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.out.write((int) value);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.out.close();
+    }
+}
@@ -0,0 +1,30 @@
+package com.laggo.fauxsweeper.core;
+
+/**
+ * Hears about everything which happens to a {@link FauxsweeperGame} that can't be worked out again from its seed alone,
+ * which is what a {@link MoveJournal} needs to play a game back later.
+ */
+public interface MoveListener {
+    /**
+     * Called once a new game has been laid out.
+     *
+     * @param game The game which was started over.
+     */
+    void onNewGame(FauxsweeperGame game);
+
+    /**
+     * Called when a player's action is about to be applied, whether or not it turns out to do anything.
+     *
+     * @param index  The index of the cell in the {@link CellStore}.
+     * @param action What is being done to the cell.
+     */
+    void onAction(int index, CellAction action);
+
+    /**
+     * Called when the first click lands on a mine and the mine is moved out of the way.
+     *
+     * @param from The index the mine was on.
+     * @param to   The index the mine was moved to.
+     */
+    void onMineMoved(int from, int to);
+}
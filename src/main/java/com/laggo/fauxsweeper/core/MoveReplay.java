@@ -0,0 +1,319 @@
+package com.laggo.fauxsweeper.core;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Plays back the games written down by a {@link MoveJournal}, one move at a time or as fast as they can be read.
+ * Games are played back on any {@link FauxsweeperGame} with the same settings, which is started over with the recorded seed,
+ * so the same game object can be reused for every game in a journal. A replay is not safe to use from several threads at once.
+ */
+public final class MoveReplay implements Closeable {
+    private static final CellAction[] ACTIONS = CellAction.values();
+    private static final MinePlacement[] PLACEMENTS = MinePlacement.values();
+
+    private final InputStream in;
+    // a game which was read while looking for the next move, and has to be handed out by nextGame() first
+    private RecordedGame pending;
+    private final MoveListener verifier = new MoveListener() {
+        @Override
+        public void onNewGame(FauxsweeperGame game) {
+        }
+
+        @Override
+        public void onAction(int index, CellAction action) {
+            MoveReplay.this.movedFrom = -1;
+        }
+
+        @Override
+        public void onMineMoved(int from, int to) {
+            MoveReplay.this.movedFrom = from;
+            MoveReplay.this.movedTo = to;
+        }
+    };
+    // the mine the game itself moved on the last action, to check against the journal
+    private int movedFrom = -1;
+    private int movedTo = -1;
+
+    /**
+     * Starts reading a journal from the beginning of a stream.
+     *
+     * @param in The stream to read, which is best buffered.
+     * @throws IOException If the stream can't be read, or doesn't hold a journal.
+     */
+    public MoveReplay(InputStream in) throws IOException {
+        this.in = in;
+        byte[] header = in.readNBytes(MoveJournal.MAGIC.length + 1);
+        if (header.length != MoveJournal.MAGIC.length + 1 || !Arrays.equals(header, 0, MoveJournal.MAGIC.length, MoveJournal.MAGIC, 0, MoveJournal.MAGIC.length)) {
+            throw new IOException("not a move journal");
+        }
+        if (header[MoveJournal.MAGIC.length] != MoveJournal.VERSION) {
+            throw new IOException("move journal version " + header[MoveJournal.MAGIC.length] + " is not supported");
+        }
+    }
+
+    /**
+     * @param path The journal file.
+     * @return A replay of the file from the start, which should be closed once done with.
+     * @throws IOException If the file can't be read, or doesn't hold a journal.
+     */
+    public static MoveReplay open(Path path) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16);
+        try {
+            return new MoveReplay(in);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Plays back every game in a journal without any UI, as fast as it can be read.
+     * A game is only built when the settings change, otherwise the last one is started over.
+     *
+     * @param path     The journal file.
+     * @param tilings  Looks a tiling up by the name it was recorded with.
+     * @param finished Handed every game once all of its moves have been played back. The same object may be handed over again for the next game.
+     * @return The number of games played back.
+     * @throws IOException If the file can't be read, or doesn't hold a journal.
+     */
+    public static long replayAll(Path path, Function<String, Tiling> tilings, Consumer<FauxsweeperGame> finished) throws IOException {
+        long games = 0;
+        try (MoveReplay replay = open(path)) {
+            FauxsweeperGame game = null;
+            String gameTiling = null;
+            RecordedGame recorded;
+            while ((recorded = replay.nextGame()) != null) {
+                if (game != null && recorded.getTilingName().equals(gameTiling) && recorded.fits(game)) {
+                    recorded.restart(game);
+                } else {
+                    Tiling tiling = tilings.apply(recorded.getTilingName());
+                    if (tiling == null) {
+                        throw new IOException("the journal uses an unknown tiling " + recorded.getTilingName());
+                    }
+                    game = recorded.start(tiling);
+                    gameTiling = recorded.getTilingName();
+                }
+                while (replay.step(game)) {
+                    // keep going until the game's moves run out
+                }
+                finished.accept(game);
+                games++;
+            }
+        }
+        return games;
+    }
+
+    /**
+     * Moves on to the next game in the journal, skipping whatever is left of the current one.
+     *
+     * @return The next game, or {@code null} once the journal has been read to the end.
+     * @throws IOException If the journal can't be read.
+     */
+    public RecordedGame nextGame() throws IOException {
+        while (this.pending == null) {
+            long record = this.readVarint(true);
+            if (record < 0) {
+                return null;
+            }
+            this.readRecord(record, null);
+        }
+        RecordedGame next = this.pending;
+        this.pending = null;
+        return next;
+    }
+
+    /**
+     * Plays back the next move of the current game.
+     *
+     * @param game The game to play the move on, which should have been started with {@link RecordedGame#restart(FauxsweeperGame)}.
+     * @return Whether there was a move left, or {@code false} once the current game has no more moves.
+     * @throws IOException           If the journal can't be read.
+     * @throws IllegalStateException If the game did something other than what was recorded.
+     */
+    public boolean step(FauxsweeperGame game) throws IOException {
+        if (this.pending != null) {
+            return false;
+        }
+        long record = this.readVarint(true);
+        if (record < 0) {
+            return false;
+        }
+        return this.readRecord(record, game);
+    }
+
+    /**
+     * @return Whether the record was a move, and was played back on {@code game} if there is one.
+     */
+    private boolean readRecord(long record, FauxsweeperGame game) throws IOException {
+        int kind = (int) (record & 3);
+        if (kind != MoveJournal.CONTROL) {
+            int index = (int) (record >>> 2);
+            if (game != null) {
+                if (index >= game.getCellStore().size()) {
+                    throw new IOException("the journal plays on cell " + index + " which is off the board");
+                }
+                MoveListener listener = game.getMoveListener();
+                game.setMoveListener(this.verifier);
+                try {
+                    game.apply(index, ACTIONS[kind]);
+                } finally {
+                    game.setMoveListener(listener);
+                }
+            }
+            return true;
+        }
+        switch ((int) (record >>> 2)) {
+            case MoveJournal.NEW_GAME:
+                this.pending = this.readGame();
+                return false;
+            case MoveJournal.MINE_MOVED:
+                int from = (int) this.readVarint(false);
+                int to = (int) this.readVarint(false);
+                if (game != null && (from != this.movedFrom || to != this.movedTo)) {
+                    throw new IllegalStateException("the journal moved a mine from " + from + " to " + to + ", but the replay moved it from "
+                            + this.movedFrom + " to " + this.movedTo);
+                }
+                return true;
+            default:
+                throw new IOException("unknown journal record " + record);
+        }
+    }
+
+    private RecordedGame readGame() throws IOException {
+        int width = (int) this.readVarint(false);
+        int height = (int) this.readVarint(false);
+        int mineCount = (int) this.readVarint(false);
+        long seed = this.readVarint(false);
+        int placement = (int) this.readVarint(false);
+        boolean noGuess = this.readVarint(false) != 0;
+        int nameLength = (int) this.readVarint(false);
+        byte[] name = this.in.readNBytes(nameLength);
+        if (name.length != nameLength) {
+            throw new EOFException("the journal ends part way through a game");
+        }
+        if (placement >= PLACEMENTS.length) {
+            throw new IOException("unknown mine placement " + placement);
+        }
+        return new RecordedGame(width, height, mineCount, seed, PLACEMENTS[placement], noGuess, new String(name, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param endAllowed Whether the journal may end here.
+     * @return The next varint, or -1 if the journal ended where it was allowed to.
+     */
+    private long readVarint(boolean endAllowed) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = this.in.read();
+            if (b < 0) {
+                if (shift == 0 && endAllowed) {
+                    return -1;
+                }
+                throw new EOFException("the journal ends part way through a record");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint in the journal");
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+    /**
+     * The settings a recorded game was played with.
+     */
+    public static final class RecordedGame {
+        private final int width;
+        private final int height;
+        private final int mineCount;
+        private final long seed;
+        private final MinePlacement minePlacement;
+        private final boolean noGuess;
+        private final String tilingName;
+
+        private RecordedGame(int width, int height, int mineCount, long seed, MinePlacement minePlacement, boolean noGuess, String tilingName) {
+            this.width = width;
+            this.height = height;
+            this.mineCount = mineCount;
+            this.seed = seed;
+            this.minePlacement = minePlacement;
+            this.noGuess = noGuess;
+            this.tilingName = tilingName;
+        }
+
+        /**
+         * @param game A game to play this one back on.
+         * @return Whether the game has the same settings, so starting it over with this seed gives the recorded layout.
+         */
+        public boolean fits(FauxsweeperGame game) {
+            return game.getWidth() == this.width && game.getHeight() == this.height && game.getMineCount() == this.mineCount
+                    && game.getMinePlacement() == this.minePlacement && game.isNoGuess() == this.noGuess;
+        }
+
+        /**
+         * Starts a game over with the recorded layout.
+         *
+         * @param game A game which {@link #fits(FauxsweeperGame)} this one, on the recorded tiling.
+         */
+        public void restart(FauxsweeperGame game) {
+            if (!this.fits(game)) {
+                throw new IllegalArgumentException("the recorded game was played with other settings");
+            }
+            game.newGame(this.seed);
+        }
+
+        /**
+         * @param tiling The tiling named by {@link #getTilingName()}.
+         * @return A new game with the recorded layout.
+         */
+        public FauxsweeperGame start(Tiling tiling) {
+            return new FauxsweeperGame(tiling, this.width, this.height, this.mineCount, this.seed, this.minePlacement, this.noGuess);
+        }
+
+        public int getWidth() {
+            return this.width;
+        }
+
+        public int getHeight() {
+            return this.height;
+        }
+
+        public int getMineCount() {
+            return this.mineCount;
+        }
+
+        public long getSeed() {
+            return this.seed;
+        }
+
+        public MinePlacement getMinePlacement() {
+            return this.minePlacement;
+        }
+
+        public boolean isNoGuess() {
+            return this.noGuess;
+        }
+
+        /**
+         * @return The name of the tiling the game was played on, as used in the configuration file.
+         */
+        public String getTilingName() {
+            return this.tilingName;
+        }
+    }
+}
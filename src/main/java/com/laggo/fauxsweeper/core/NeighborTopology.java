@@ -0,0 +1,138 @@
+package com.laggo.fauxsweeper.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+/**
+ * Which cells border each other on a board of a certain shape, worked out once and then looked up.
+ * The neighbors of every cell are stored back to back in one {@code int[]}, with a second array holding where each cell's run starts,
+ * so visiting them is a plain array walk instead of redoing the tiling's coordinate math every time.
+ * Boards too large for the tables to be worth their memory fall back to asking the {@link Tiling} directly.
+ * Instances never change once built, so they are shared between every board of the same shape.
+ */
+public final class NeighborTopology {
+    /**
+     * Boards with more cells than this don't get tables. A square board this large needs about 36 MiB for them.
+     */
+    public static final int MAX_TABLE_CELLS = 1 << 20;
+    // tables are only reused by boards of the same shape, so a handful is plenty
+    private static final int CACHE_SIZE = 8;
+    private static final Map<Key, NeighborTopology> CACHE = new LinkedHashMap<Key, NeighborTopology>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, NeighborTopology> eldest) {
+            return this.size() > CACHE_SIZE;
+        }
+    };
+
+    private final Tiling tiling;
+    private final int width;
+    private final int height;
+    // offsets[i] until offsets[i + 1] is the range of neighbors[] holding the neighbors of cell i; both null if there are no tables
+    private final int[] offsets;
+    private final int[] neighbors;
+
+    private NeighborTopology(Tiling tiling, int width, int height) {
+        this.tiling = tiling;
+        this.width = width;
+        this.height = height;
+
+        int size = width * height;
+        if (size > MAX_TABLE_CELLS) {
+            this.offsets = null;
+            this.neighbors = null;
+            return;
+        }
+
+        this.offsets = new int[size + 1];
+        int[] count = new int[1];
+        for (int i = 0; i < size; ++i) {
+            count[0] = 0;
+            tiling.forEachNeighbor(width, height, i % width, i / width, neighbor -> count[0]++);
+            this.offsets[i + 1] = this.offsets[i] + count[0];
+        }
+
+        this.neighbors = new int[this.offsets[size]];
+        int[] next = new int[1];
+        for (int i = 0; i < size; ++i) {
+            tiling.forEachNeighbor(width, height, i % width, i / width, neighbor -> this.neighbors[next[0]++] = neighbor);
+        }
+    }
+
+    /**
+     * Gets the topology of boards of a certain shape, building it if no board of that shape has asked recently.
+     *
+     * @param tiling The tiling of the board.
+     * @param width  The width of the board.
+     * @param height The height of the board.
+     * @return The topology.
+     */
+    public static NeighborTopology of(Tiling tiling, int width, int height) {
+        Key key = new Key(tiling, width, height);
+        synchronized (CACHE) {
+            return CACHE.computeIfAbsent(key, k -> new NeighborTopology(tiling, width, height));
+        }
+    }
+
+    /**
+     * Visits the index of every cell bordering another, without allocating.
+     *
+     * @param index  The index of the cell.
+     * @param action The action to run on every neighboring index.
+     */
+    public void forEachNeighbor(int index, IntConsumer action) {
+        if (this.neighbors == null) {
+            this.tiling.forEachNeighbor(this.width, this.height, index % this.width, index / this.width, action);
+            return;
+        }
+        for (int i = this.offsets[index], end = this.offsets[index + 1]; i < end; ++i) {
+            action.accept(this.neighbors[i]);
+        }
+    }
+
+    public Tiling getTiling() {
+        return this.tiling;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * @return Whether neighbors are looked up in precomputed tables, as opposed to being worked out on every visit.
+     */
+    public boolean hasTables() {
+        return this.neighbors != null;
+    }
+
+    private static final class Key {
+        private final Tiling tiling;
+        private final int width;
+        private final int height;
+
+        private Key(Tiling tiling, int width, int height) {
+            this.tiling = tiling;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return other.tiling == this.tiling && other.width == this.width && other.height == this.height;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.tiling, this.width, this.height);
+        }
+    }
+}
@@ -0,0 +1,517 @@
+package com.laggo.fauxsweeper.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Works out how likely every hidden cell is to hold a mine, from nothing but what the player can see: the revealed numbers and the mine counter.
+ * Flags are ignored, since they are only the player's opinion.
+ * <p>
+ * Hidden cells bordering a revealed number are split into groups which share no numbers, and the mine placements of each group are counted
+ * one cell at a time. Partial placements which leave the numbers still being filled in with the same mines are merged, so the work grows with
+ * how many such states there are rather than with the number of placements, which is what keeps this fast on long, winding borders.
+ * Counting forwards gives how many placements of each group use a certain number of mines, and counting backwards again, weighted by how many ways
+ * the rest of the board can hold the remaining mines, gives each cell's share. Every other hidden cell is equally likely to hold any mine left over.
+ * <p>
+ * The cost is roughly the number of bordering cells, times the number of distinct states at each of them, times the number of mines a group can hold.
+ * Expert boards take around a millisecond on every standard tiling, and the worst positions seen so far under 20. A group whose states outgrow {@link #MAX_STATES},
+ * or whose half filled numbers don't fit in {@link #KEY_BITS} bits at once, is treated as if its numbers said nothing.
+ * A single instance is not safe to use from several threads at once.
+ */
+public class ProbabilitySolver {
+    /**
+     * The most distinct partial placements tracked at any one cell of a group before the group is given up on.
+     */
+    public static final int MAX_STATES = 1 << 15;
+    /**
+     * How many bits of a {@code long} the half filled numbers share. Each one takes just enough bits to count up to the mines it wants,
+     * and the top bit is left alone so no state can be mistaken for {@link #INVALID}.
+     */
+    public static final int KEY_BITS = 63;
+    private static final long INVALID = -1;
+
+    private final NeighborTopology topology;
+    private final int size;
+    // the group's position in groups, -1 for cells which are not part of any group, or -2 for cells of a group which couldn't be counted
+    private final int[] groupOf;
+    // the position of a cell within its group, or of a number within its group's list of numbers
+    private final int[] local;
+    // stamps for walking a group a second time, with a fresh generation each walk so they never need wiping
+    private final int[] visited;
+    private int visit;
+    private final int[] neighbors = new int[64];
+    private int neighborCount;
+    private final IntConsumer collectNeighbor = neighbor -> this.neighbors[this.neighborCount++] = neighbor;
+    // log(n!) for every n up to the size of the board, for binomial coefficients which don't fit in a double
+    private final double[] logFactorial;
+
+    /**
+     * Instantiates a new solver for boards of a certain shape.
+     *
+     * @param topology Which cells border each other on the board.
+     */
+    public ProbabilitySolver(NeighborTopology topology) {
+        this.topology = topology;
+        this.size = topology.getWidth() * topology.getHeight();
+        this.groupOf = new int[this.size];
+        this.local = new int[this.size];
+        this.visited = new int[this.size];
+        this.logFactorial = new double[this.size + 1];
+        for (int i = 1; i <= this.size; ++i) {
+            this.logFactorial[i] = this.logFactorial[i - 1] + Math.log(i);
+        }
+    }
+
+    /**
+     * Works out the chance of every hidden cell holding a mine.
+     *
+     * @param store     The cells of the board. Only revealed cells are looked at.
+     * @param mineCount The number of mines on the board.
+     * @return For every cell, the chance of it holding a mine, from 0 to 1. Revealed cells are {@link Double#NaN}.
+     */
+    public double[] solve(CellStore store, int mineCount) {
+        double[] probabilities = new double[this.size];
+        int minesLeft = mineCount;
+        Arrays.fill(this.groupOf, -1);
+        for (int i = 0; i < this.size; ++i) {
+            if (store.isRevealed(i)) {
+                probabilities[i] = Double.NaN;
+                if (store.isMine(i)) {
+                    minesLeft--;
+                }
+            }
+        }
+
+        List<Group> groups = new ArrayList<>();
+        int interior = 0;
+        for (int i = 0; i < this.size; ++i) {
+            if (store.isRevealed(i) || this.groupOf[i] != -1) {
+                continue;
+            }
+            if (this.bordersNumber(store, i)) {
+                Group group = this.collectGroup(store, i, groups.size());
+                groups.add(group);
+                if (!group.count()) {
+                    // too tangled to count, so its cells go in with the ones nobody knows anything about
+                    for (int cell : group.cells) {
+                        this.groupOf[cell] = -2;
+                    }
+                    interior += group.cells.length;
+                    groups.remove(groups.size() - 1);
+                }
+            } else {
+                interior++;
+            }
+        }
+
+        // the mines every group but one can hold between them, for every group, built from running products from both ends
+        int groupCount = groups.size();
+        double[][] before = new double[groupCount + 1][];
+        double[][] after = new double[groupCount + 1][];
+        before[0] = new double[]{1};
+        after[groupCount] = new double[]{1};
+        for (int g = 0; g < groupCount; ++g) {
+            before[g + 1] = convolve(before[g], groups.get(g).totals);
+        }
+        for (int g = groupCount - 1; g >= 0; --g) {
+            after[g] = convolve(after[g + 1], groups.get(g).totals);
+        }
+
+        // how many ways the cells away from every number can hold what is left, for every number of mines left to them
+        double[] interiorWays = new double[minesLeft + 1];
+        double maxLog = Double.NEGATIVE_INFINITY;
+        for (int left = 0; left <= minesLeft; ++left) {
+            if (left <= interior) {
+                maxLog = Math.max(maxLog, this.logBinomial(interior, left));
+            }
+        }
+        for (int left = 0; left <= minesLeft; ++left) {
+            interiorWays[left] = left <= interior ? Math.exp(this.logBinomial(interior, left) - maxLog) : 0;
+        }
+
+        double total = 0;
+        double interiorMines = 0;
+        double[] all = before[groupCount];
+        for (int mines = 0; mines < all.length && mines <= minesLeft; ++mines) {
+            double ways = all[mines] * interiorWays[minesLeft - mines];
+            total += ways;
+            interiorMines += ways * (minesLeft - mines);
+        }
+        if (total == 0) {
+            // what is showing can't happen with this many mines, so there is nothing sensible to say
+            for (int i = 0; i < this.size; ++i) {
+                if (!store.isRevealed(i)) {
+                    probabilities[i] = Double.NaN;
+                }
+            }
+            return probabilities;
+        }
+        double interiorProbability = interior == 0 ? 0 : interiorMines / total / interior;
+
+        for (int g = 0; g < groupCount; ++g) {
+            Group group = groups.get(g);
+            double[] others = convolve(before[g], after[g + 1]);
+            double[] weights = new double[group.totals.length];
+            for (int mines = 0; mines < weights.length; ++mines) {
+                for (int otherMines = 0; otherMines < others.length && mines + otherMines <= minesLeft; ++otherMines) {
+                    weights[mines] += others[otherMines] * interiorWays[minesLeft - mines - otherMines];
+                }
+            }
+            group.share(weights, probabilities);
+        }
+        for (int i = 0; i < this.size; ++i) {
+            if (!store.isRevealed(i) && this.groupOf[i] < 0) {
+                probabilities[i] = interiorProbability;
+            }
+        }
+        return probabilities;
+    }
+
+    private boolean bordersNumber(CellStore store, int index) {
+        this.loadNeighbors(index);
+        for (int i = 0; i < this.neighborCount; ++i) {
+            int neighbor = this.neighbors[i];
+            if (store.isRevealed(neighbor) && !store.isMine(neighbor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void loadNeighbors(int index) {
+        this.neighborCount = 0;
+        this.topology.forEachNeighbor(index, this.collectNeighbor);
+    }
+
+    private double logBinomial(int n, int k) {
+        return this.logFactorial[n] - this.logFactorial[k] - this.logFactorial[n - k];
+    }
+
+    /**
+     * Finds every hidden cell connected to a first one through shared numbers, in the order they were found,
+     * which keeps the numbers being filled in at any one time few.
+     */
+    private Group collectGroup(CellStore store, int first, int groupIndex) {
+        int[] cells = new int[16];
+        int cellCount = 0;
+        int[] numbers = new int[16];
+        int numberCount = 0;
+        this.groupOf[first] = groupIndex;
+        cells[cellCount++] = first;
+        for (int head = 0; head < cellCount; ++head) {
+            this.loadNeighbors(cells[head]);
+            int[] around = Arrays.copyOf(this.neighbors, this.neighborCount);
+            for (int number : around) {
+                if (!store.isRevealed(number) || store.isMine(number) || this.groupOf[number] == groupIndex) {
+                    continue;
+                }
+                // numbers are revealed and cells aren't, so both can share the marker without mixing up
+                this.groupOf[number] = groupIndex;
+                if (numberCount == numbers.length) {
+                    numbers = Arrays.copyOf(numbers, numberCount * 2);
+                }
+                this.local[number] = numberCount;
+                numbers[numberCount++] = number;
+                this.loadNeighbors(number);
+                for (int i = 0; i < this.neighborCount; ++i) {
+                    int cell = this.neighbors[i];
+                    if (!store.isRevealed(cell) && this.groupOf[cell] != groupIndex) {
+                        this.groupOf[cell] = groupIndex;
+                        if (cellCount == cells.length) {
+                            cells = Arrays.copyOf(cells, cellCount * 2);
+                        }
+                        cells[cellCount++] = cell;
+                    }
+                }
+            }
+        }
+        cells = this.reorder(store, cells, cellCount);
+        for (int j = 0; j < cellCount; ++j) {
+            this.local[cells[j]] = j;
+        }
+
+        // what each number still needs, and the cells of each number in the order they get counted
+        int[] needed = new int[numberCount];
+        int[] remaining = new int[numberCount];
+        for (int k = 0; k < numberCount; ++k) {
+            needed[k] = store.getValue(numbers[k]).ordinal();
+            this.loadNeighbors(numbers[k]);
+            for (int i = 0; i < this.neighborCount; ++i) {
+                int neighbor = this.neighbors[i];
+                if (store.isRevealed(neighbor)) {
+                    if (store.isMine(neighbor)) {
+                        needed[k]--;
+                    }
+                } else {
+                    remaining[k]++;
+                }
+            }
+        }
+        for (int k = 0; k < numberCount; ++k) {
+            // hand the marker back to the cells alone
+            this.groupOf[numbers[k]] = -1;
+        }
+
+        // every cell's numbers, with where in the key each number lives, how many of its cells come after this one and how wide it is
+        int[] linkStart = new int[cellCount + 1];
+        List<int[]> links = new ArrayList<>();
+        int[] shiftOf = new int[numberCount];
+        Arrays.fill(shiftOf, -1);
+        long taken = 0;
+        boolean fits = true;
+        for (int j = 0; j < cellCount; ++j) {
+            linkStart[j] = links.size();
+            this.loadNeighbors(cells[j]);
+            int[] around = Arrays.copyOf(this.neighbors, this.neighborCount);
+            for (int number : around) {
+                if (!store.isRevealed(number) || store.isMine(number)) {
+                    continue;
+                }
+                int k = this.local[number];
+                long mask = (1L << (Integer.SIZE - Integer.numberOfLeadingZeros(needed[k]))) - 1;
+                if (shiftOf[k] == -1) {
+                    int shift = 0;
+                    while (shift + Long.bitCount(mask) <= KEY_BITS && (taken & (mask << shift)) != 0) {
+                        shift++;
+                    }
+                    if (shift + Long.bitCount(mask) > KEY_BITS) {
+                        fits = false;
+                        break;
+                    }
+                    taken |= mask << shift;
+                    shiftOf[k] = shift;
+                }
+                remaining[k]--;
+                links.add(new int[]{needed[k], shiftOf[k], remaining[k], (int) mask});
+                if (remaining[k] == 0) {
+                    taken &= ~(mask << shiftOf[k]);
+                }
+            }
+            if (!fits) {
+                break;
+            }
+        }
+        linkStart[cellCount] = links.size();
+        return new Group(cells, fits ? linkStart : null, links.toArray(new int[0][]));
+    }
+
+    /**
+     * Walks a group again starting from the last cell the first walk found, which lies at one end of the group.
+     * Counting from an end rather than from the middle keeps far fewer numbers half filled at once, the same way
+     * Cuthill-McKee ordering keeps the bandwidth of a sparse matrix down.
+     */
+    private int[] reorder(CellStore store, int[] cells, int cellCount) {
+        int gen = ++this.visit;
+        int[] order = new int[cellCount];
+        int found = 0;
+        order[found++] = cells[cellCount - 1];
+        this.visited[cells[cellCount - 1]] = gen;
+        for (int head = 0; head < found; ++head) {
+            this.loadNeighbors(order[head]);
+            int[] around = Arrays.copyOf(this.neighbors, this.neighborCount);
+            for (int number : around) {
+                if (!store.isRevealed(number) || store.isMine(number) || this.visited[number] == gen) {
+                    continue;
+                }
+                this.visited[number] = gen;
+                this.loadNeighbors(number);
+                for (int i = 0; i < this.neighborCount; ++i) {
+                    int cell = this.neighbors[i];
+                    if (!store.isRevealed(cell) && this.visited[cell] != gen) {
+                        this.visited[cell] = gen;
+                        order[found++] = cell;
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * @return The number of ways of holding every total, for two independent sets of cells together.
+     */
+    private static double[] convolve(double[] a, double[] b) {
+        double[] result = new double[a.length + b.length - 1];
+        for (int i = 0; i < a.length; ++i) {
+            if (a[i] == 0) {
+                continue;
+            }
+            for (int j = 0; j < b.length; ++j) {
+                result[i + j] += a[i] * b[j];
+            }
+        }
+        // only the ratios matter, so keep the numbers from growing without bound
+        double max = 0;
+        for (double ways : result) {
+            max = Math.max(max, ways);
+        }
+        if (max > 0) {
+            for (int i = 0; i < result.length; ++i) {
+                result[i] /= max;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The ways of filling in the cells counted so far which leave the numbers in the same state, by how many mines they use.
+     */
+    private static final class State {
+        private int minMines;
+        private double[] ways;
+        // how the rest of the board can be filled in from here, weighted by everything outside the group, by mines used so far
+        private double[] weights;
+
+        private State(int mines, double ways) {
+            this.minMines = mines;
+            this.ways = new double[]{ways};
+        }
+
+        private void add(int minMines, double[] ways) {
+            int newMin = Math.min(this.minMines, minMines);
+            int newMax = Math.max(this.minMines + this.ways.length, minMines + ways.length);
+            if (newMin != this.minMines || newMax != this.minMines + this.ways.length) {
+                double[] grown = new double[newMax - newMin];
+                System.arraycopy(this.ways, 0, grown, this.minMines - newMin, this.ways.length);
+                this.ways = grown;
+                this.minMines = newMin;
+            }
+            for (int i = 0; i < ways.length; ++i) {
+                this.ways[minMines - this.minMines + i] += ways[i];
+            }
+        }
+
+        private double weightAt(int mines) {
+            int i = mines - this.minMines;
+            return i >= 0 && i < this.weights.length ? this.weights[i] : 0;
+        }
+    }
+
+    /**
+     * One group of hidden cells which share numbers, and the counts of its mine placements.
+     */
+    private final class Group {
+        private final int[] cells;
+        // null if the group can't be counted
+        private final int[] linkStart;
+        // for every link: what the number needs, the shift of its bit field in the key, how many of its cells are still to come,
+        // and the mask of its bit field
+        private final int[][] links;
+        private final List<Map<Long, State>> steps = new ArrayList<>();
+        // the number of placements using every number of mines
+        private double[] totals;
+
+        private Group(int[] cells, int[] linkStart, int[][] links) {
+            this.cells = cells;
+            this.linkStart = linkStart;
+            this.links = links;
+        }
+
+        /**
+         * Counts placements one cell at a time, merging the ones which leave the numbers in the same state.
+         *
+         * @return Whether the group could be counted.
+         */
+        private boolean count() {
+            if (this.linkStart == null) {
+                return false;
+            }
+            Map<Long, State> current = new HashMap<>();
+            current.put(0L, new State(0, 1));
+            this.steps.add(current);
+            for (int j = 0; j < this.cells.length; ++j) {
+                Map<Long, State> next = new HashMap<>();
+                for (Map.Entry<Long, State> entry : current.entrySet()) {
+                    for (int mine = 0; mine <= 1; ++mine) {
+                        long key = this.advance(entry.getKey(), j, mine);
+                        if (key == INVALID) {
+                            continue;
+                        }
+                        State from = entry.getValue();
+                        State to = next.get(key);
+                        if (to == null) {
+                            to = new State(from.minMines + mine, 0);
+                            next.put(key, to);
+                        }
+                        to.add(from.minMines + mine, from.ways);
+                    }
+                }
+                if (next.size() > MAX_STATES) {
+                    return false;
+                }
+                this.steps.add(next);
+                current = next;
+            }
+            // every number is filled in by the end, so there is exactly one state left
+            State last = current.get(0L);
+            if (last == null) {
+                return false;
+            }
+            this.totals = new double[last.minMines + last.ways.length];
+            System.arraycopy(last.ways, 0, this.totals, last.minMines, last.ways.length);
+            return true;
+        }
+
+        /**
+         * @return The state after deciding whether cell {@code j} holds a mine, or {@link #INVALID} if that breaks a number.
+         */
+        private long advance(long key, int j, int mine) {
+            for (int l = this.linkStart[j]; l < this.linkStart[j + 1]; ++l) {
+                int[] link = this.links[l];
+                int shift = link[1];
+                long mask = link[3];
+                int mines = (int) ((key >>> shift) & mask) + mine;
+                if (mines > link[0] || mines + link[2] < link[0]) {
+                    return INVALID;
+                }
+                // a finished number drops out of the key, so states which only differ in it get merged
+                key = (key & ~(mask << shift)) | ((link[2] == 0 ? 0L : mines) << shift);
+            }
+            return key;
+        }
+
+        /**
+         * Counts backwards with every placement weighted by the ways of placing the rest of the mines, and hands every cell its chance.
+         */
+        private void share(double[] weights, double[] probabilities) {
+            int n = this.cells.length;
+            State last = this.steps.get(n).get(0L);
+            last.weights = new double[last.ways.length];
+            for (int i = 0; i < last.weights.length; ++i) {
+                int mines = last.minMines + i;
+                last.weights[i] = mines < weights.length ? weights[mines] : 0;
+            }
+            for (int j = n - 1; j >= 0; --j) {
+                Map<Long, State> next = this.steps.get(j + 1);
+                double mineShare = 0;
+                for (Map.Entry<Long, State> entry : this.steps.get(j).entrySet()) {
+                    State from = entry.getValue();
+                    from.weights = new double[from.ways.length];
+                    for (int mine = 0; mine <= 1; ++mine) {
+                        long key = this.advance(entry.getKey(), j, mine);
+                        if (key == INVALID) {
+                            continue;
+                        }
+                        State to = next.get(key);
+                        for (int i = 0; i < from.weights.length; ++i) {
+                            double weight = to.weightAt(from.minMines + i + mine);
+                            from.weights[i] += weight;
+                            if (mine == 1) {
+                                mineShare += from.ways[i] * weight;
+                            }
+                        }
+                    }
+                }
+                probabilities[this.cells[j]] = mineShare;
+            }
+            double total = this.steps.get(0).get(0L).weights[0];
+            for (int cell : this.cells) {
+                probabilities[cell] = total == 0 ? Double.NaN : probabilities[cell] / total;
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.laggo.fauxsweeper.core;
+
+import java.util.Random;
+
+/**
+ * A {@link Random} producing exactly the same sequence as its parent, which can also tell at any point
+ * which seed would start that sequence over from there. {@link Random} keeps its state to itself, so this
+ * runs the same linear congruential generator on a copy it can see.
+ */
+class SeedTrackingRandom extends Random {
+    private static final long serialVersionUID = 1L;
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    // not initialized here, since the parent constructor sets it through setSeed before any initializer would run
+    private long state;
+
+    /**
+     * Instantiates a new random number generator.
+     *
+     * @param seed The initial seed.
+     */
+    SeedTrackingRandom(long seed) {
+        super(seed);
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        super.setSeed(seed);
+        this.state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected int next(int bits) {
+        this.state = (this.state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (this.state >>> (48 - bits));
+    }
+
+    /**
+     * @return A seed which, given to {@link #setSeed(long)}, makes this generator continue exactly as it would from here.
+     */
+    long currentSeed() {
+        return this.state ^ MULTIPLIER;
+    }
+}
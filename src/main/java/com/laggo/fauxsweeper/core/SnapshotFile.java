@@ -0,0 +1,219 @@
+package com.laggo.fauxsweeper.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntConsumer;
+
+/**
+ * Keeps a game saved in a file as it is played, so it can be picked up again later.
+ * The file is mapped into memory, and after every move only the header and the cells in the game's {@link ChangeJournal} are written,
+ * so saving costs about as much as repainting. Resuming copies the cells straight back, which takes milliseconds even on huge boards.
+ * <p>
+ * The file starts with a fixed {@value #HEADER_SIZE} byte header, big-endian:
+ * <pre>
+ *  0  int     magic, "FXSW"
+ *  4  short   format version, {@value #VERSION}
+ *  6  byte    game state ordinal
+ *  7  byte    flags, bit 0 set for no-guess games, bit 1 set once the solver has cleared a no-guess layout
+ *  8  int     width
+ * 12  int     height
+ * 16  int     mine count
+ * 20  long    seed the layout was drawn from
+ * 28  long    time spent on the game, in nanoseconds
+ * 36  int     index of the mine which ended the game, or -1
+ * 40  byte    length of the tiling name
+ * 41  byte[]  tiling name in UTF-8, padded with zeros to {@value #MAX_TILING_NAME} bytes
+ * 80  long    seed the game's random sequence carries on from, which is further along than the layout seed once mines have been moved
+ * </pre>
+ * It is followed by one byte for every cell, packed the same way as in {@link CellStore}.
+ */
+public final class SnapshotFile implements Closeable {
+    public static final int VERSION = 2;
+    public static final int MAX_TILING_NAME = 39;
+    public static final int HEADER_SIZE = 88;
+    private static final int MAGIC = 0x46585357;
+    private static final int NO_GUESS_FLAG = 1;
+    private static final int GUARANTEED_NO_GUESS_FLAG = 2;
+    private static final GameState[] GAME_STATES = GameState.values();
+
+    private final FauxsweeperGame game;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final byte[] tilingName;
+    private final long resumedNanos;
+    // kept around so saving doesn't allocate a lambda for every move
+    private final IntConsumer saveCell;
+
+    private SnapshotFile(FauxsweeperGame game, FileChannel channel, MappedByteBuffer buffer, byte[] tilingName, long resumedNanos) {
+        this.game = game;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.tilingName = tilingName;
+        this.resumedNanos = resumedNanos;
+        byte[] cells = game.getCellStore().bytes();
+        this.saveCell = index -> this.buffer.put(HEADER_SIZE + index, cells[index]);
+    }
+
+    /**
+     * Opens a file to keep a game saved in. If the file already holds a game of the same size, tiling and mine count,
+     * that game is loaded into {@code game} and carries on from where it was left; otherwise the file is overwritten with {@code game}.
+     *
+     * @param path       The file to save to.
+     * @param game       The game to save, which may be replaced by the saved one.
+     * @param tilingName The name of the game's tiling, as used in the configuration file.
+     * @return The open file, which should be saved to after every move.
+     * @throws IOException If the file can't be opened or mapped.
+     */
+    public static SnapshotFile open(Path path, FauxsweeperGame game, String tilingName) throws IOException {
+        byte[] name = tilingName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_TILING_NAME) {
+            throw new IllegalArgumentException("tiling name " + tilingName + " is too long to save");
+        }
+        CellStore store = game.getCellStore();
+        long fileSize = HEADER_SIZE + (long) store.size();
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try {
+            boolean sameSize = channel.size() == fileSize;
+            if (!sameSize) {
+                channel.truncate(0);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            long resumedNanos = -1;
+            if (sameSize && matches(buffer, game, name)) {
+                resumedNanos = buffer.getLong(28);
+                buffer.get(HEADER_SIZE, store.bytes());
+                game.restore(buffer.getLong(20), buffer.getLong(80), GAME_STATES[buffer.get(6)], buffer.getInt(36), (buffer.get(7) & GUARANTEED_NO_GUESS_FLAG) != 0);
+            }
+            SnapshotFile snapshot = new SnapshotFile(game, channel, buffer, name, resumedNanos);
+            if (resumedNanos < 0) {
+                snapshot.saveAll(0);
+            }
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a game to a file once, replacing whatever the file held.
+     *
+     * @param path         The file to write.
+     * @param game         The game to write.
+     * @param tilingName   The name of the game's tiling, as used in the configuration file.
+     * @param elapsedNanos The time spent on the game so far, in nanoseconds.
+     * @throws IOException If the file can't be written.
+     */
+    public static void write(Path path, FauxsweeperGame game, String tilingName, long elapsedNanos) throws IOException {
+        // otherwise opening it would load the old game over this one
+        Files.deleteIfExists(path);
+        try (SnapshotFile snapshot = open(path, game, tilingName)) {
+            snapshot.writeProgress(elapsedNanos);
+        }
+    }
+
+    private static boolean matches(ByteBuffer buffer, FauxsweeperGame game, byte[] name) {
+        if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION || buffer.get(6) < 0 || buffer.get(6) >= GAME_STATES.length) {
+            return false;
+        }
+        if (buffer.getInt(8) != game.getWidth() || buffer.getInt(12) != game.getHeight() || buffer.getInt(16) != game.getMineCount()) {
+            return false;
+        }
+        if (buffer.get(40) != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; ++i) {
+            if (buffer.get(41 + i) != name[i]) {
+                return false;
+            }
+        }
+        int clickedMineIndex = buffer.getInt(36);
+        if (clickedMineIndex < -1 || clickedMineIndex >= game.getCellStore().size()) {
+            return false;
+        }
+        for (int i = 0; i < game.getCellStore().size(); ++i) {
+            if (!CellStore.isValid(buffer.get(HEADER_SIZE + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Whether opening the file picked up a game saved earlier.
+     */
+    public boolean isResumed() {
+        return this.resumedNanos >= 0;
+    }
+
+    /**
+     * @return The time already spent on the resumed game, in nanoseconds, or -1 if nothing was resumed.
+     */
+    public long getResumedNanos() {
+        return this.resumedNanos;
+    }
+
+    /**
+     * Saves the game as it is now. Only the cells in its {@link ChangeJournal} are written, so this has to be called before the journal is drained.
+     *
+     * @param elapsedNanos The time spent on the game so far, in nanoseconds.
+     */
+    public void save(long elapsedNanos) {
+        ChangeJournal changes = this.game.getChanges();
+        if (changes.isAllDirty()) {
+            this.saveAll(elapsedNanos);
+            return;
+        }
+        changes.forEach(this.saveCell);
+        this.writeProgress(elapsedNanos);
+    }
+
+    private void saveAll(long elapsedNanos) {
+        this.buffer.putInt(0, MAGIC);
+        this.buffer.putShort(4, (short) VERSION);
+        this.buffer.putInt(8, this.game.getWidth());
+        this.buffer.putInt(12, this.game.getHeight());
+        this.buffer.putInt(16, this.game.getMineCount());
+        this.buffer.put(40, (byte) this.tilingName.length);
+        for (int i = 0; i < MAX_TILING_NAME; ++i) {
+            this.buffer.put(41 + i, i < this.tilingName.length ? this.tilingName[i] : 0);
+        }
+        this.buffer.put(HEADER_SIZE, this.game.getCellStore().bytes());
+        this.writeProgress(elapsedNanos);
+    }
+
+    /**
+     * Writes the parts of the header which change as the game goes on.
+     */
+    private void writeProgress(long elapsedNanos) {
+        this.buffer.put(6, (byte) this.game.getGameState().ordinal());
+        // the solver only clears a no-guess layout on the first click, long after the whole file was written
+        this.buffer.put(7, (byte) ((this.game.isNoGuess() ? NO_GUESS_FLAG : 0) | (this.game.isGuaranteedNoGuess() ? GUARANTEED_NO_GUESS_FLAG : 0)));
+        this.buffer.putLong(20, this.game.getSeed());
+        this.buffer.putLong(28, elapsedNanos);
+        this.buffer.putInt(36, this.game.getClickedMineIndex());
+        this.buffer.putLong(80, this.game.getRandomPosition());
+    }
+
+    /**
+     * Pushes everything written so far out to the disk and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.buffer.force();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            this.channel.close();
+        }
+    }
+}
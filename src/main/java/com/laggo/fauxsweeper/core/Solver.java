@@ -0,0 +1,553 @@
+package com.laggo.fauxsweeper.core;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Plays a board the way a careful player would, to find out whether it can be cleared by logic alone, without ever guessing.
+ * It only ever looks at the numbers of cells it has revealed and at the total number of mines, and tries three kinds of reasoning,
+ * cheapest first: what a single number says about its hidden neighbors, what two overlapping numbers say together,
+ * and finally trying every way to place mines along the edge of the revealed area, one connected group of cells at a time.
+ * Work is driven by queues of numbers which changed since they were last looked at, so the cost of a solve follows how much
+ * it uncovers rather than how often it has to go back to the cheaper rules.
+ * A single instance is not safe to use from several threads at once.
+ */
+public class Solver {
+    /**
+     * Trying every mine placement along one group of cells is given up after this many steps, leaving that group undecided.
+     */
+    public static final int MAX_BACKTRACKING_STEPS = 1 << 16;
+    private static final byte UNKNOWN = 0;
+    private static final byte SAFE = 1;
+    private static final byte MINE = 2;
+
+    private final NeighborTopology topology;
+    private final int size;
+    private final byte[] known;
+    // for every cell found safe: how many of its hidden neighbors are mines, and how many of its neighbors are still hidden
+    private final int[] missingMines;
+    private final int[] hiddenNeighbors;
+    // numbers which changed and still need the single number rules applied, as a ring buffer
+    private final int[] queue;
+    private final long[] queued;
+    private int queueHead;
+    private int queueCount;
+    // numbers which changed since the overlap rules last compared them with their neighbors
+    private final int[] pending;
+    private final long[] pendingBits;
+    private int pendingCount;
+    // every use of the stamp arrays gets a fresh generation, so they never have to be wiped
+    private final int[] stampA;
+    private final int[] stampB;
+    private final int[] seen;
+    private int generation;
+    // one connected group of hidden cells along the edge of the revealed area, and the numbers touching it
+    private final int[] local;
+    private final int[] groupCells;
+    private final int[] groupNumbers;
+    private int groupCellCount;
+    private int groupNumberCount;
+    private final int[] groupLinkStart;
+    private int[] groupLinks = new int[64];
+    private final int[] numberNeeded;
+    private final int[] numberMines;
+    private final int[] numberOpen;
+    private final boolean[] assignment;
+    private final int[] mineHits;
+    // when each number last changed, and when each cell's group was last found undecidable, so unchanged groups are not tried again
+    private final int[] changedAt;
+    private final int[] undecidedAt;
+    private int clock;
+    private int solutions;
+    private int steps;
+    private int assignedMines;
+    private final NeighborList markNeighbors = new NeighborList();
+    private final NeighborList outerNeighbors = new NeighborList();
+    private final NeighborList middleNeighbors = new NeighborList();
+    private final NeighborList innerNeighbors = new NeighborList();
+    private CellStore store;
+    private int hiddenCells;
+    private int minesLeft;
+
+    /**
+     * Instantiates a new solver for boards of a certain shape.
+     *
+     * @param topology Which cells border each other on the board.
+     */
+    public Solver(NeighborTopology topology) {
+        this.topology = topology;
+        this.size = topology.getWidth() * topology.getHeight();
+        this.known = new byte[this.size];
+        this.missingMines = new int[this.size];
+        this.hiddenNeighbors = new int[this.size];
+        this.queue = new int[this.size];
+        this.queued = new long[(this.size + 63) >>> 6];
+        this.pending = new int[this.size];
+        this.pendingBits = new long[(this.size + 63) >>> 6];
+        this.stampA = new int[this.size];
+        this.stampB = new int[this.size];
+        this.seen = new int[this.size];
+        this.local = new int[this.size];
+        this.groupCells = new int[this.size];
+        this.groupNumbers = new int[this.size];
+        this.groupLinkStart = new int[this.size + 1];
+        this.numberNeeded = new int[this.size];
+        this.numberMines = new int[this.size];
+        this.numberOpen = new int[this.size];
+        this.assignment = new boolean[this.size];
+        this.mineHits = new int[this.size];
+        this.changedAt = new int[this.size];
+        this.undecidedAt = new int[this.size];
+    }
+
+    /**
+     * Plays a board from its first click until it is cleared or nothing more can be worked out.
+     * The board itself is left alone; what the solver found stays available through {@link #isResolved(int)} and {@link #isFrontier(int)}.
+     *
+     * @param store     The cells of the board, which are read for where the mines really are and what the revealed numbers say.
+     * @param start     The index of the first cell to reveal, which must not hold a mine.
+     * @param mineCount The number of mines on the board.
+     * @return Whether every cell without a mine could be revealed without guessing.
+     */
+    public boolean solve(CellStore store, int start, int mineCount) {
+        this.store = store;
+        Arrays.fill(this.known, UNKNOWN);
+        Arrays.fill(this.queued, 0);
+        Arrays.fill(this.pendingBits, 0);
+        this.queueHead = 0;
+        this.queueCount = 0;
+        this.pendingCount = 0;
+        Arrays.fill(this.undecidedAt, 0);
+        this.clock = 0;
+        this.hiddenCells = this.size;
+        this.minesLeft = mineCount;
+
+        try {
+            this.markSafe(start);
+            while (true) {
+                while (this.queueCount > 0) {
+                    int number = this.queue[this.queueHead];
+                    if (++this.queueHead == this.size) {
+                        this.queueHead = 0;
+                    }
+                    this.queueCount--;
+                    this.queued[number >>> 6] &= ~(1L << number);
+                    this.applySingleRule(number);
+                }
+                // knowing every mine, or knowing every hidden cell is one, is enough to finish
+                if (this.minesLeft == 0 || this.hiddenCells == this.minesLeft) {
+                    return true;
+                }
+                if (!this.applyOverlapRules() && !this.applyBacktracking()) {
+                    return false;
+                }
+            }
+        } finally {
+            this.store = null;
+        }
+    }
+
+    /**
+     * @param index The index of a cell.
+     * @return Whether the last solve found out whether that cell holds a mine.
+     */
+    public boolean isResolved(int index) {
+        return this.known[index] != UNKNOWN;
+    }
+
+    /**
+     * @param index The index of a cell.
+     * @return Whether the last solve left that cell undecided even though it borders a revealed cell.
+     */
+    public boolean isFrontier(int index) {
+        if (this.known[index] != UNKNOWN) {
+            return false;
+        }
+        NeighborList neighbors = this.outerNeighbors.load(index);
+        for (int i = 0; i < neighbors.size; ++i) {
+            if (this.known[neighbors.cells[i]] == SAFE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void markSafe(int index) {
+        if (this.store.isMine(index)) {
+            throw new IllegalStateException("worked out that cell " + index + " is safe, but it holds a mine");
+        }
+        this.known[index] = SAFE;
+        this.hiddenCells--;
+        int missing = this.store.getValue(index).ordinal();
+        int hidden = 0;
+        NeighborList neighbors = this.markNeighbors.load(index);
+        for (int i = 0; i < neighbors.size; ++i) {
+            int neighbor = neighbors.cells[i];
+            if (this.known[neighbor] == MINE) {
+                missing--;
+            } else if (this.known[neighbor] == UNKNOWN) {
+                hidden++;
+            } else {
+                this.hiddenNeighbors[neighbor]--;
+                this.enqueue(neighbor);
+            }
+        }
+        this.missingMines[index] = missing;
+        this.hiddenNeighbors[index] = hidden;
+        this.enqueue(index);
+    }
+
+    private void markMine(int index) {
+        if (!this.store.isMine(index)) {
+            throw new IllegalStateException("worked out that cell " + index + " holds a mine, but it is safe");
+        }
+        this.known[index] = MINE;
+        this.hiddenCells--;
+        this.minesLeft--;
+        NeighborList neighbors = this.markNeighbors.load(index);
+        for (int i = 0; i < neighbors.size; ++i) {
+            int neighbor = neighbors.cells[i];
+            if (this.known[neighbor] == SAFE) {
+                this.hiddenNeighbors[neighbor]--;
+                this.missingMines[neighbor]--;
+                this.enqueue(neighbor);
+            }
+        }
+    }
+
+    private void mark(int index, boolean mine) {
+        if (mine) {
+            this.markMine(index);
+        } else {
+            this.markSafe(index);
+        }
+    }
+
+    private void enqueue(int number) {
+        this.changedAt[number] = ++this.clock;
+        if ((this.queued[number >>> 6] & (1L << number)) == 0) {
+            this.queued[number >>> 6] |= 1L << number;
+            int tail = this.queueHead + this.queueCount;
+            this.queue[tail < this.size ? tail : tail - this.size] = number;
+            this.queueCount++;
+        }
+        if ((this.pendingBits[number >>> 6] & (1L << number)) == 0) {
+            this.pendingBits[number >>> 6] |= 1L << number;
+            this.pending[this.pendingCount++] = number;
+        }
+    }
+
+    /**
+     * A number with no mines left around it makes all its hidden neighbors safe, and one with as many mines left as hidden neighbors makes them all mines.
+     */
+    private void applySingleRule(int number) {
+        int hidden = this.hiddenNeighbors[number];
+        int missing = this.missingMines[number];
+        if (hidden == 0 || (missing != 0 && missing != hidden)) {
+            return;
+        }
+        NeighborList neighbors = this.outerNeighbors.load(number);
+        for (int i = 0; i < neighbors.size; ++i) {
+            if (this.known[neighbors.cells[i]] == UNKNOWN) {
+                this.mark(neighbors.cells[i], missing != 0);
+            }
+        }
+    }
+
+    /**
+     * Compares every changed number with each number sharing a hidden cell with it.
+     *
+     * @return Whether anything was found, in which case the cheaper rules get another go first.
+     */
+    private boolean applyOverlapRules() {
+        while (this.pendingCount > 0) {
+            int number = this.pending[--this.pendingCount];
+            this.pendingBits[number >>> 6] &= ~(1L << number);
+            if (this.hiddenNeighbors[number] > 0 && this.compareWithOverlapping(number)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean compareWithOverlapping(int a) {
+        int gen = ++this.generation;
+        this.seen[a] = gen;
+        NeighborList hiddenA = this.outerNeighbors.load(a);
+        for (int i = 0; i < hiddenA.size; ++i) {
+            if (this.known[hiddenA.cells[i]] == UNKNOWN) {
+                this.stampA[hiddenA.cells[i]] = gen;
+            }
+        }
+        for (int i = 0; i < hiddenA.size; ++i) {
+            int cell = hiddenA.cells[i];
+            if (this.known[cell] != UNKNOWN) {
+                continue;
+            }
+            NeighborList numbers = this.middleNeighbors.load(cell);
+            for (int j = 0; j < numbers.size; ++j) {
+                int b = numbers.cells[j];
+                if (this.known[b] == SAFE && this.hiddenNeighbors[b] > 0 && this.seen[b] != gen) {
+                    this.seen[b] = gen;
+                    if (this.compare(a, hiddenA, b, gen, ++this.generation)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * If the difference between two numbers is as large as the hidden cells only the larger one touches,
+     * those cells are all mines and the cells only the smaller one touches are all safe.
+     */
+    private boolean compare(int a, NeighborList hiddenA, int b, int genA, int genB) {
+        NeighborList hiddenB = this.innerNeighbors.load(b);
+        int shared = 0;
+        for (int i = 0; i < hiddenB.size; ++i) {
+            int cell = hiddenB.cells[i];
+            if (this.known[cell] == UNKNOWN) {
+                this.stampB[cell] = genB;
+                if (this.stampA[cell] == genA) {
+                    shared++;
+                }
+            }
+        }
+        int onlyA = this.hiddenNeighbors[a] - shared;
+        int onlyB = this.hiddenNeighbors[b] - shared;
+        int difference = this.missingMines[b] - this.missingMines[a];
+        boolean mineOnlyInB;
+        if (difference == onlyB) {
+            mineOnlyInB = true;
+        } else if (-difference == onlyA) {
+            mineOnlyInB = false;
+        } else {
+            return false;
+        }
+        if (onlyA == 0 && onlyB == 0) {
+            return false;
+        }
+        for (int i = 0; i < hiddenB.size; ++i) {
+            int cell = hiddenB.cells[i];
+            if (this.known[cell] == UNKNOWN && this.stampA[cell] != genA) {
+                this.mark(cell, mineOnlyInB);
+            }
+        }
+        for (int i = 0; i < hiddenA.size; ++i) {
+            int cell = hiddenA.cells[i];
+            if (this.known[cell] == UNKNOWN && this.stampB[cell] != genB) {
+                this.mark(cell, !mineOnlyInB);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits the hidden cells along the edge of the revealed area into groups which share no numbers,
+     * and tries every mine placement in each group until one of them decides a cell.
+     *
+     * @return Whether anything was found.
+     */
+    private boolean applyBacktracking() {
+        int gen = ++this.generation;
+        for (int number = 0; number < this.size; ++number) {
+            if (this.known[number] != SAFE || this.hiddenNeighbors[number] == 0) {
+                continue;
+            }
+            NeighborList neighbors = this.outerNeighbors.load(number);
+            for (int i = 0; i < neighbors.size; ++i) {
+                int cell = neighbors.cells[i];
+                if (this.known[cell] == UNKNOWN && this.seen[cell] != gen) {
+                    if (this.collectGroup(cell, gen) && this.solveGroup()) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Whether any number touching the group changed since the group was last found undecidable.
+     */
+    private boolean collectGroup(int first, int gen) {
+        this.groupCellCount = 0;
+        this.groupNumberCount = 0;
+        this.seen[first] = gen;
+        this.local[first] = this.groupCellCount;
+        this.groupCells[this.groupCellCount++] = first;
+        for (int head = 0; head < this.groupCellCount; ++head) {
+            NeighborList numbers = this.middleNeighbors.load(this.groupCells[head]);
+            for (int i = 0; i < numbers.size; ++i) {
+                int number = numbers.cells[i];
+                if (this.known[number] != SAFE || this.seen[number] == gen) {
+                    continue;
+                }
+                this.seen[number] = gen;
+                this.local[number] = this.groupNumberCount;
+                this.groupNumbers[this.groupNumberCount++] = number;
+                NeighborList cells = this.innerNeighbors.load(number);
+                for (int j = 0; j < cells.size; ++j) {
+                    int cell = cells.cells[j];
+                    if (this.known[cell] == UNKNOWN && this.seen[cell] != gen) {
+                        this.seen[cell] = gen;
+                        this.local[cell] = this.groupCellCount;
+                        this.groupCells[this.groupCellCount++] = cell;
+                    }
+                }
+            }
+        }
+        int lastChange = 0;
+        for (int k = 0; k < this.groupNumberCount; ++k) {
+            lastChange = Math.max(lastChange, this.changedAt[this.groupNumbers[k]]);
+        }
+        for (int j = 0; j < this.groupCellCount; ++j) {
+            if (this.undecidedAt[this.groupCells[j]] < lastChange) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean solveGroup() {
+        int cellCount = this.groupCellCount;
+        int numberCount = this.groupNumberCount;
+        for (int k = 0; k < numberCount; ++k) {
+            int number = this.groupNumbers[k];
+            this.numberNeeded[k] = this.missingMines[number];
+            this.numberMines[k] = 0;
+            this.numberOpen[k] = this.hiddenNeighbors[number];
+        }
+        // every cell's numbers, back to back, as local indices
+        int links = 0;
+        for (int j = 0; j < cellCount; ++j) {
+            this.groupLinkStart[j] = links;
+            this.mineHits[j] = 0;
+            NeighborList numbers = this.innerNeighbors.load(this.groupCells[j]);
+            for (int i = 0; i < numbers.size; ++i) {
+                if (this.known[numbers.cells[i]] == SAFE) {
+                    if (links == this.groupLinks.length) {
+                        this.groupLinks = Arrays.copyOf(this.groupLinks, links * 2);
+                    }
+                    this.groupLinks[links++] = this.local[numbers.cells[i]];
+                }
+            }
+        }
+        this.groupLinkStart[cellCount] = links;
+
+        this.solutions = 0;
+        this.steps = 0;
+        this.assignedMines = 0;
+        if (!this.enumerate(0) || this.solutions == 0) {
+            this.markUndecided();
+            return false;
+        }
+        boolean progress = false;
+        for (int j = 0; j < cellCount; ++j) {
+            int cell = this.groupCells[j];
+            if (this.mineHits[j] == 0) {
+                this.markSafe(cell);
+                progress = true;
+            } else if (this.mineHits[j] == this.solutions) {
+                this.markMine(cell);
+                progress = true;
+            }
+        }
+        if (!progress) {
+            this.markUndecided();
+        }
+        return progress;
+    }
+
+    private void markUndecided() {
+        for (int j = 0; j < this.groupCellCount; ++j) {
+            this.undecidedAt[this.groupCells[j]] = this.clock;
+        }
+    }
+
+    /**
+     * @return Whether every placement was tried within the step limit.
+     */
+    private boolean enumerate(int j) {
+        if (++this.steps > MAX_BACKTRACKING_STEPS) {
+            return false;
+        }
+        if (j == this.groupCellCount) {
+            this.solutions++;
+            for (int i = 0; i < j; ++i) {
+                if (this.assignment[i]) {
+                    this.mineHits[i]++;
+                }
+            }
+            return true;
+        }
+        for (int option = 0; option < 2; ++option) {
+            boolean mine = option == 1;
+            if (mine && this.assignedMines == this.minesLeft) {
+                break;
+            }
+            this.assignment[j] = mine;
+            boolean consistent = this.assign(j, mine);
+            boolean finished = !consistent || this.enumerate(j + 1);
+            this.unassign(j, mine);
+            if (!finished) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean assign(int j, boolean mine) {
+        boolean consistent = true;
+        if (mine) {
+            this.assignedMines++;
+        }
+        for (int l = this.groupLinkStart[j]; l < this.groupLinkStart[j + 1]; ++l) {
+            int k = this.groupLinks[l];
+            this.numberOpen[k]--;
+            if (mine) {
+                this.numberMines[k]++;
+            }
+            if (this.numberMines[k] > this.numberNeeded[k] || this.numberMines[k] + this.numberOpen[k] < this.numberNeeded[k]) {
+                consistent = false;
+            }
+        }
+        return consistent;
+    }
+
+    private void unassign(int j, boolean mine) {
+        if (mine) {
+            this.assignedMines--;
+        }
+        for (int l = this.groupLinkStart[j]; l < this.groupLinkStart[j + 1]; ++l) {
+            int k = this.groupLinks[l];
+            this.numberOpen[k]++;
+            if (mine) {
+                this.numberMines[k]--;
+            }
+        }
+    }
+
+    /**
+     * The neighbors of one cell, copied out so they can be walked while other cells' neighbors are being looked up.
+     */
+    private final class NeighborList implements IntConsumer {
+        private int[] cells = new int[16];
+        private int size;
+
+        private NeighborList load(int index) {
+            this.size = 0;
+            Solver.this.topology.forEachNeighbor(index, this);
+            return this;
+        }
+
+        @Override
+        public void accept(int neighbor) {
+            if (this.size == this.cells.length) {
+                this.cells = Arrays.copyOf(this.cells, this.size * 2);
+            }
+            this.cells[this.size++] = neighbor;
+        }
+    }
+}
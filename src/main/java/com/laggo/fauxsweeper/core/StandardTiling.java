@@ -0,0 +1,91 @@
+package com.laggo.fauxsweeper.core;
+
+import java.util.function.IntConsumer;
+
+/**
+ * The tilings which ship with Fauxsweeper.
+ */
+public enum StandardTiling implements Tiling {
+    SQUARE {
+        @Override
+        public void forEachNeighbor(int width, int height, int x, int y, IntConsumer action) {
+            for (int offsetX = -1; offsetX <= 1; ++offsetX) {
+                for (int offsetY = -1; offsetY <= 1; ++offsetY) {
+                    int neighborX = x + offsetX;
+                    int neighborY = y + offsetY;
+                    if ((offsetX != 0 || offsetY != 0) && neighborX >= 0 && neighborY >= 0 && neighborX < width && neighborY < height) {
+                        action.accept(neighborY * width + neighborX);
+                    }
+                }
+            }
+        }
+    },
+    HEXAGONAL {
+        @Override
+        public void forEachNeighbor(int width, int height, int x, int y, IntConsumer action) {
+            /*
+             * Recall how cells are laid out in a hexagonal tiling:
+             * 0 1 2 3 4 5
+             *  0 1 2 3 4 5
+             * 0 1 2 3 4 5
+             *  0 1 2 3 4 5
+             */
+            // odd rows are shifted right, so their diagonal neighbors are one column further right
+            final int diagonalX = y % 2 == 1 ? x + 1 : x - 1;
+
+            if (y > 0) {
+                action.accept((y - 1) * width + x);
+                if (diagonalX >= 0 && diagonalX < width) {
+                    action.accept((y - 1) * width + diagonalX);
+                }
+            }
+            if (x + 1 < width) {
+                action.accept(y * width + x + 1);
+            }
+            if (x > 0) {
+                action.accept(y * width + x - 1);
+            }
+            if (y + 1 < height) {
+                action.accept((y + 1) * width + x);
+                if (diagonalX >= 0 && diagonalX < width) {
+                    action.accept((y + 1) * width + diagonalX);
+                }
+            }
+        }
+    },
+    TRIANGULAR {
+        @Override
+        public void forEachNeighbor(int width, int height, int x, int y, IntConsumer action) {
+            if (x > 0) {
+                action.accept(y * width + x - 1);
+            }
+            if (x + 1 < width) {
+                action.accept(y * width + x + 1);
+            }
+            // triangles pointing down share their flat side with the row above, and vice versa
+            final int neighborY = pointsUp(x, y) ? y + 1 : y - 1;
+            if (neighborY >= 0 && neighborY < height) {
+                action.accept(neighborY * width + x);
+            }
+        }
+    };
+
+    /**
+     * @param x The x coordinate of a cell in a {@link #TRIANGULAR} tiling.
+     * @param y The y coordinate of the cell.
+     * @return Whether the triangle at this location points up, as opposed to down.
+     */
+    public static boolean pointsUp(int x, int y) {
+        /*
+        If we visualize the tiling, the directions the triangles point are as follows:
+        U D U D U D
+        D U D U D U  ...
+        U D U D U D
+             .
+             .
+             .
+        So, as it turns out, we can use (x + y) % 2 to determine which direction a triangle points given its location in the grid.
+         */
+        return (x + y) % 2 == 0;
+    }
+}
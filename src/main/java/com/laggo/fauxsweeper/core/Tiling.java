@@ -0,0 +1,20 @@
+package com.laggo.fauxsweeper.core;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A way cells can be arranged on a board, which decides which cells border each other.
+ * Cells are always addressed by their x and y coordinates and stored row by row, whatever shape they are.
+ */
+public interface Tiling {
+    /**
+     * Visits the index of every cell bordering a location.
+     *
+     * @param width  The width of the board.
+     * @param height The height of the board.
+     * @param x      The x coordinate of the cell.
+     * @param y      The y coordinate of the cell.
+     * @param action The action to run on every neighboring index.
+     */
+    void forEachNeighbor(int width, int height, int x, int y, IntConsumer action);
+}
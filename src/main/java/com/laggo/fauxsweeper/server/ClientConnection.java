@@ -0,0 +1,201 @@
+package com.laggo.fauxsweeper.server;
+
+import com.laggo.fauxsweeper.core.CellAction;
+import com.laggo.fauxsweeper.core.CellStore;
+import com.laggo.fauxsweeper.core.CellValue;
+import com.laggo.fauxsweeper.core.ClickResult;
+import com.laggo.fauxsweeper.core.FauxsweeperGame;
+import com.laggo.fauxsweeper.core.MinePlacement;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Serves one connection to a {@link GameServer}, one request line at a time. See the server for the protocol.
+ */
+final class ClientConnection implements Runnable {
+    private final GameServer server;
+    private final Socket socket;
+    private final StringBuilder reply = new StringBuilder();
+    private Session session;
+
+    ClientConnection(GameServer server, Socket socket) {
+        this.server = server;
+        this.socket = socket;
+    }
+
+    @Override
+    public void run() {
+        try (Socket socket = this.socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                this.reply.setLength(0);
+                boolean quit;
+                try {
+                    quit = this.handle(line.trim().split("\\s+"));
+                } catch (IllegalArgumentException e) {
+                    // covers malformed numbers too
+                    this.reply.setLength(0);
+                    this.reply.append("ERR ").append(e.getMessage());
+                    quit = false;
+                }
+                out.append(this.reply).append('\n');
+                out.flush();
+                if (quit) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // the client went away, and there is nobody to tell
+        }
+    }
+
+    /**
+     * Handles one request and leaves the answer in {@link #reply}.
+     *
+     * @return Whether to close the connection.
+     */
+    private boolean handle(String[] request) throws IOException {
+        String command = request[0].toUpperCase(Locale.ROOT);
+        switch (command) {
+            case "NEW":
+                this.expectArguments(request, 3, 6);
+                this.session = this.server.createSession(Integer.parseInt(request[1]), Integer.parseInt(request[2]), Integer.parseInt(request[3]),
+                        request.length > 4 ? request[4] : "square",
+                        request.length > 5 ? MinePlacement.valueOf(request[5].toUpperCase(Locale.ROOT)) : MinePlacement.UNIFORM,
+                        request.length > 6 && Boolean.parseBoolean(request[6]));
+                this.reply.append("OK ").append(this.session.getId());
+                return false;
+            case "JOIN":
+                this.expectArguments(request, 1, 1);
+                Session joined = this.server.getSession(request[1]);
+                if (joined == null) {
+                    throw new IllegalArgumentException("unknown session " + request[1]);
+                }
+                this.session = joined;
+                this.reply.append("OK ").append(joined.getId());
+                return false;
+            case "END":
+                this.expectArguments(request, 0, 0);
+                if (this.session == null) {
+                    throw new IllegalArgumentException("start or join a session first");
+                }
+                this.server.endSession(this.session);
+                this.session = null;
+                this.reply.append("OK");
+                return false;
+            case "QUIT":
+                this.reply.append("OK");
+                return true;
+            case "REVEAL":
+            case "FLAG":
+            case "UNFLAG":
+            case "RESTART":
+            case "STATE":
+            case "BOARD":
+                this.play(command, request);
+                return false;
+            default:
+                throw new IllegalArgumentException("unknown command " + request[0]);
+        }
+    }
+
+    private void play(String command, String[] request) throws IOException {
+        if (this.session == null) {
+            throw new IllegalArgumentException("start or join a session first");
+        }
+        FauxsweeperGame game = this.session.acquire();
+        try {
+            switch (command) {
+                case "REVEAL":
+                    this.move(game, request, CellAction.REVEAL);
+                    break;
+                case "FLAG":
+                    this.move(game, request, CellAction.CYCLE_FLAG);
+                    break;
+                case "UNFLAG":
+                    this.move(game, request, CellAction.CYCLE_FLAG_BACK);
+                    break;
+                case "RESTART":
+                    this.expectArguments(request, 0, 0);
+                    game.newGame();
+                    this.appendState(game);
+                    break;
+                case "STATE":
+                    this.expectArguments(request, 0, 0);
+                    this.appendState(game);
+                    break;
+                default:
+                    this.expectArguments(request, 0, 0);
+                    this.appendBoard(game);
+                    break;
+            }
+            // nothing here draws the board, so nothing would ever drain it
+            game.getChanges().clear();
+        } finally {
+            this.session.release();
+        }
+    }
+
+    private void move(FauxsweeperGame game, String[] request, CellAction action) {
+        this.expectArguments(request, 2, 2);
+        ClickResult result = game.apply(Integer.parseInt(request[1]), Integer.parseInt(request[2]), action);
+        this.server.countMove();
+        this.reply.append("OK ").append(result).append(' ');
+        this.appendStateFields(game);
+    }
+
+    private void appendState(FauxsweeperGame game) {
+        this.reply.append("OK ");
+        this.appendStateFields(game);
+    }
+
+    private void appendStateFields(FauxsweeperGame game) {
+        this.reply.append(game.getGameState()).append(' ').append(game.getUnrevealedSafeCells()).append(' ').append(game.getFlagCount());
+    }
+
+    private void appendBoard(FauxsweeperGame game) {
+        CellStore store = game.getCellStore();
+        this.reply.append("OK ");
+        for (int y = 0; y < store.getHeight(); ++y) {
+            if (y > 0) {
+                this.reply.append('/');
+            }
+            for (int x = 0; x < store.getWidth(); ++x) {
+                int index = store.indexOf(x, y);
+                if (store.isRevealed(index)) {
+                    CellValue value = store.getValue(index);
+                    this.reply.append(value == CellValue.MINE ? '*' : (char) ('0' + value.ordinal()));
+                } else {
+                    switch (store.getState(index)) {
+                        case FLAG:
+                            this.reply.append('F');
+                            break;
+                        case FLAG_POTENTIAL:
+                            this.reply.append('?');
+                            break;
+                        default:
+                            this.reply.append('#');
+                            break;
+                    }
+                }
+            }
+        }
+    }
+
+    private void expectArguments(String[] request, int min, int max) {
+        int count = request.length - 1;
+        if (count < min || count > max) {
+            throw new IllegalArgumentException(request[0] + " takes " + (min == max ? String.valueOf(min) : min + " to " + max) + " arguments");
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.laggo.fauxsweeper.server;
+
+import com.laggo.fauxsweeper.cell.TilingProvider;
+import com.laggo.fauxsweeper.config.TilingRegistry;
+import com.laggo.fauxsweeper.core.MinePlacement;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hosts any number of games in one JVM, played over a simple line-based TCP protocol.
+ * Every connection runs on its own virtual thread, so thousands of them cost next to nothing while they wait for the next line.
+ * Games live in {@link Session}s, which are written to snapshots and dropped from memory once nobody has played on them for a while,
+ * and forgotten altogether once they have been left alone for much longer, or once a client ends them.
+ * This never touches JavaFX, so it runs without a display.
+ * <p>
+ * Every request is one line, and gets exactly one line back, starting with {@code OK} or {@code ERR}:
+ * <pre>
+ * NEW width height mines [tiling [placement [noguess]]]  start a session and play on it, answers OK session-id
+ * JOIN session-id                                        play on an existing session
+ * REVEAL x y                                             left click a cell
+ * FLAG x y                                               right click a cell
+ * UNFLAG x y                                             shift + right click a cell
+ * RESTART                                                start the session's game over
+ * END                                                    forget the session and its game, for every connection playing on it
+ * STATE                                                  the state of the game
+ * BOARD                                                  the whole board, one row after another separated by '/'
+ * QUIT                                                   close the connection
+ * </pre>
+ * Moves and {@code STATE} answer {@code OK result game-state unrevealed-safe-cells flags}, where the result is left out for {@code STATE}.
+ * On the board, hidden cells are {@code #}, flags {@code F}, potential flags {@code ?}, mines {@code *} and revealed numbers their digit.
+ * <p>
+ * Usage: {@code GameServer [--port n] [--snapshots directory] [--idle-seconds n] [--expire-seconds n]}
+ */
+public final class GameServer implements Closeable {
+    /**
+     * The biggest board a session may ask for.
+     */
+    public static final int MAX_CELLS = 1 << 20;
+    public static final int DEFAULT_PORT = 4571;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextSessionId = new AtomicLong();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final Path snapshotDirectory;
+    private final Duration idleTimeout;
+    private final Duration expiryTimeout;
+    private final ServerSocket serverSocket;
+    private volatile boolean open = true;
+
+    /**
+     * Starts listening for connections.
+     *
+     * @param port              The port to listen on, or 0 for any free one.
+     * @param snapshotDirectory Where to keep the games of idle sessions.
+     * @param idleTimeout       How long a session may go without a move before it is evicted to its snapshot.
+     * @param expiryTimeout     How long a session may go without a move before it is forgotten along with its snapshot.
+     * @throws IOException If the port can't be listened on or the directory can't be made.
+     */
+    public GameServer(int port, Path snapshotDirectory, Duration idleTimeout, Duration expiryTimeout) throws IOException {
+        this.snapshotDirectory = Files.createDirectories(snapshotDirectory);
+        this.idleTimeout = idleTimeout;
+        this.expiryTimeout = expiryTimeout;
+        this.serverSocket = new ServerSocket();
+        // a big backlog, since thousands of clients may connect at once
+        this.serverSocket.bind(new InetSocketAddress(port), 4096);
+        Thread.ofVirtual().name("server-accept").start(this::acceptConnections);
+        Thread.ofVirtual().name("server-evict").start(this::evictIdleSessions);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = DEFAULT_PORT;
+        Path snapshots = Paths.get("sessions");
+        long idleSeconds = 300;
+        long expireSeconds = 24 * 60 * 60;
+        for (int i = 0; i < args.length; ++i) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("no value given for " + args[i]);
+            }
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--snapshots":
+                    snapshots = Paths.get(args[++i]);
+                    break;
+                case "--idle-seconds":
+                    idleSeconds = Long.parseLong(args[++i]);
+                    break;
+                case "--expire-seconds":
+                    expireSeconds = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        GameServer server = new GameServer(port, snapshots, Duration.ofSeconds(idleSeconds), Duration.ofSeconds(expireSeconds));
+        System.out.printf("listening on port %d, keeping idle sessions in %s%n", server.getPort(), snapshots.toAbsolutePath());
+        long lastMoves = 0;
+        while (true) {
+            Thread.sleep(10_000);
+            long totalMoves = server.getMoveCount();
+            System.out.printf(Locale.ROOT, "%d sessions, %d in memory, %d evictions, %d expired, %.1f moves/s%n",
+                    server.getSessionCount(), server.getLoadedSessionCount(), server.getEvictionCount(), server.getExpiredCount(), (totalMoves - lastMoves) / 10.0);
+            lastMoves = totalMoves;
+        }
+    }
+
+    private void acceptConnections() {
+        while (this.open) {
+            Socket socket;
+            try {
+                socket = this.serverSocket.accept();
+            } catch (IOException e) {
+                if (this.open) {
+                    e.printStackTrace();
+                }
+                continue;
+            }
+            Thread.ofVirtual().name("server-connection").start(new ClientConnection(this, socket));
+        }
+    }
+
+    private void evictIdleSessions() {
+        // look a few times per timeout, so nothing stays loaded much longer than it should
+        long period = Math.max(100, this.idleTimeout.toMillis() / 4);
+        while (this.open) {
+            try {
+                Thread.sleep(period);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long now = System.nanoTime();
+            long idleSince = now - this.idleTimeout.toNanos();
+            long expiredSince = now - this.expiryTimeout.toNanos();
+            for (Session session : this.sessions.values()) {
+                try {
+                    if (session.closeIfIdle(expiredSince)) {
+                        this.sessions.remove(session.getId(), session);
+                        this.expirations.increment();
+                    } else if (session.evictIfIdle(idleSince)) {
+                        this.evictions.increment();
+                    }
+                } catch (IOException e) {
+                    // it just stays in memory
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts a new session.
+     *
+     * @return The session.
+     * @throws IllegalArgumentException If the board can't be played or the tiling is unknown.
+     */
+    Session createSession(int width, int height, int mineCount, String tilingName, MinePlacement minePlacement, boolean noGuess) {
+        if (width <= 0 || height <= 0 || (long) width * height > MAX_CELLS) {
+            throw new IllegalArgumentException("boards can have at most " + MAX_CELLS + " cells");
+        }
+        TilingProvider<?> tiling = TilingRegistry.get(tilingName);
+        if (tiling == null) {
+            throw new IllegalArgumentException("unknown tiling " + tilingName);
+        }
+        String id = Long.toString(this.nextSessionId.incrementAndGet(), 36);
+        Session session = new Session(id, tilingName, tiling.getTiling(), width, height, mineCount, minePlacement, noGuess,
+                this.snapshotDirectory.resolve(id + ".bin"));
+        this.sessions.put(id, session);
+        return session;
+    }
+
+    /**
+     * @param id The id of a session.
+     * @return The session, or {@code null} if there is none.
+     */
+    Session getSession(String id) {
+        return this.sessions.get(id);
+    }
+
+    /**
+     * Forgets a session along with its game, for every connection playing on it.
+     *
+     * @param session The session to end.
+     * @throws IOException If its snapshot can't be deleted.
+     */
+    void endSession(Session session) throws IOException {
+        this.sessions.remove(session.getId(), session);
+        session.close();
+    }
+
+    void countMove() {
+        this.moves.increment();
+    }
+
+    /**
+     * @return The port the server listens on.
+     */
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    public int getSessionCount() {
+        return this.sessions.size();
+    }
+
+    /**
+     * @return The number of sessions whose game is in memory rather than in a snapshot.
+     */
+    public int getLoadedSessionCount() {
+        int loaded = 0;
+        for (Session session : this.sessions.values()) {
+            if (session.isLoaded()) {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * @return The number of moves played on every session so far.
+     */
+    public long getMoveCount() {
+        return this.moves.sum();
+    }
+
+    /**
+     * @return The number of times a session was evicted to its snapshot.
+     */
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * @return The number of sessions forgotten after going without a move for too long.
+     */
+    public long getExpiredCount() {
+        return this.expirations.sum();
+    }
+
+    /**
+     * Stops listening and forgets every session along with its snapshot. Connections which are already open stay open.
+     */
+    @Override
+    public void close() throws IOException {
+        this.open = false;
+        this.serverSocket.close();
+        for (Session session : this.sessions.values()) {
+            session.close();
+        }
+        this.sessions.clear();
+    }
+}
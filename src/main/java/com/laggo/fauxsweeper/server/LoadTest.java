@@ -0,0 +1,153 @@
+package com.laggo.fauxsweeper.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hammers a {@link GameServer} with many clients at once, each on its own virtual thread, and reports how many sessions were started
+ * and how many moves were played per second. Every client starts a session, then clicks random cells until the game ends and starts over,
+ * optionally thinking a while before every click, and ends its session once time is up. Without a host, a server is started in this JVM
+ * on a free port, evicting sessions after {@code --idle-seconds}.
+ * <p>
+ * Usage: {@code LoadTest [--host name] [--port n] [--clients n] [--seconds n] [--board WIDTHxHEIGHTxMINES] [--idle-seconds n] [--think-millis n]}
+ */
+public final class LoadTest {
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String host = null;
+        int port = GameServer.DEFAULT_PORT;
+        int clients = 1000;
+        int seconds = 10;
+        String board = "30x16x99";
+        long idleSeconds = 5;
+        long thinkMillis = 0;
+        for (int i = 0; i < args.length; ++i) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("no value given for " + args[i]);
+            }
+            switch (args[i]) {
+                case "--host":
+                    host = args[++i];
+                    break;
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--clients":
+                    clients = Integer.parseInt(args[++i]);
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt(args[++i]);
+                    break;
+                case "--board":
+                    board = args[++i];
+                    break;
+                case "--idle-seconds":
+                    idleSeconds = Long.parseLong(args[++i]);
+                    break;
+                case "--think-millis":
+                    thinkMillis = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        String[] dimensions = board.split("x");
+        int width = Integer.parseInt(dimensions[0]);
+        int height = Integer.parseInt(dimensions[1]);
+        int mines = Integer.parseInt(dimensions[2]);
+
+        GameServer server = null;
+        if (host == null) {
+            host = "localhost";
+            server = new GameServer(0, Files.createTempDirectory("fauxsweeper-sessions"), Duration.ofSeconds(idleSeconds), Duration.ofHours(1));
+            port = server.getPort();
+        }
+
+        LongAdder sessions = new LongAdder();
+        LongAdder games = new LongAdder();
+        LongAdder moves = new LongAdder();
+        LongAdder failures = new LongAdder();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        String serverHost = host;
+        int serverPort = port;
+        long think = thinkMillis;
+
+        System.out.printf("%d clients playing %s on %s:%d for %d s%n", clients, board, host, port, seconds);
+        long start = System.nanoTime();
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int c = 0; c < clients; ++c) {
+            long seed = c;
+            threads.add(Thread.ofVirtual().start(() -> {
+                SplittableRandom rand = new SplittableRandom(seed);
+                try (Socket socket = new Socket(serverHost, serverPort);
+                     BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                     Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+                    request(in, out, "NEW " + width + " " + height + " " + mines);
+                    sessions.increment();
+                    while (System.nanoTime() - deadline < 0) {
+                        if (think > 0) {
+                            Thread.sleep(think);
+                        }
+                        String reply = request(in, out, "REVEAL " + rand.nextInt(width) + " " + rand.nextInt(height));
+                        moves.increment();
+                        if (reply.contains(" WON ") || reply.contains(" LOST ")) {
+                            games.increment();
+                            request(in, out, "RESTART");
+                        }
+                    }
+                    request(in, out, "END");
+                    request(in, out, "QUIT");
+                } catch (IOException e) {
+                    failures.increment();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf(Locale.ROOT, "%d sessions started, %.1f sessions/s%n", sessions.sum(), sessions.sum() / elapsed);
+        System.out.printf(Locale.ROOT, "%d moves, %.1f moves/s%n", moves.sum(), moves.sum() / elapsed);
+        System.out.printf(Locale.ROOT, "%d games finished, %.1f games/s%n", games.sum(), games.sum() / elapsed);
+        if (failures.sum() > 0) {
+            System.out.printf("%d clients failed%n", failures.sum());
+        }
+        if (server != null) {
+            // every client ended its session, so none should be left
+            System.out.printf("server: %d sessions left, %d in memory, %d evictions%n", server.getSessionCount(), server.getLoadedSessionCount(), server.getEvictionCount());
+            server.close();
+        }
+    }
+
+    private static String request(BufferedReader in, Writer out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+        String reply = in.readLine();
+        if (reply == null) {
+            throw new IOException("the server hung up");
+        }
+        if (!reply.startsWith("OK")) {
+            throw new IOException("the server refused " + line + ": " + reply);
+        }
+        return reply;
+    }
+}
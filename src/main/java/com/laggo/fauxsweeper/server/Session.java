@@ -0,0 +1,168 @@
+package com.laggo.fauxsweeper.server;
+
+import com.laggo.fauxsweeper.core.FauxsweeperGame;
+import com.laggo.fauxsweeper.core.MinePlacement;
+import com.laggo.fauxsweeper.core.SnapshotFile;
+import com.laggo.fauxsweeper.core.Tiling;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One game hosted by a {@link GameServer}, which any number of connections can play on.
+ * While nobody plays on it for a while, the game is written to a snapshot and dropped from memory, and it is read back on the next move.
+ * Only one connection plays on a session at a time, through {@link #acquire()} and {@link #release()}.
+ * Once closed, the session is gone for good, and connections still holding on to it are told so on their next move.
+ */
+final class Session implements Closeable {
+    private final String id;
+    private final String tilingName;
+    private final Tiling tiling;
+    private final int width;
+    private final int height;
+    private final int mineCount;
+    private final MinePlacement minePlacement;
+    private final boolean noGuess;
+    private final Path snapshot;
+    // a lock rather than synchronized, which would pin a virtual thread to its carrier while it waits
+    private final ReentrantLock lock = new ReentrantLock();
+    // null while the game only lives in its snapshot
+    private volatile FauxsweeperGame game;
+    private volatile long lastUsed;
+    private boolean closed;
+
+    Session(String id, String tilingName, Tiling tiling, int width, int height, int mineCount, MinePlacement minePlacement, boolean noGuess, Path snapshot) {
+        this.id = id;
+        this.tilingName = tilingName;
+        this.tiling = tiling;
+        this.width = width;
+        this.height = height;
+        this.mineCount = mineCount;
+        this.minePlacement = minePlacement;
+        this.noGuess = noGuess;
+        this.snapshot = snapshot;
+        this.game = new FauxsweeperGame(tiling, width, height, mineCount, null, minePlacement, noGuess);
+        this.lastUsed = System.nanoTime();
+    }
+
+    String getId() {
+        return this.id;
+    }
+
+    /**
+     * Takes the session for the calling thread, reading the game back from its snapshot if it was evicted.
+     *
+     * @return The game, which may only be used until {@link #release()}.
+     * @throws IOException              If the snapshot can't be read.
+     * @throws IllegalArgumentException If the session has been closed.
+     */
+    FauxsweeperGame acquire() throws IOException {
+        this.lock.lock();
+        try {
+            if (this.closed) {
+                throw new IllegalArgumentException("session " + this.id + " has ended");
+            }
+            if (this.game == null) {
+                this.game = this.load();
+            }
+            this.lastUsed = System.nanoTime();
+            return this.game;
+        } catch (IOException | RuntimeException e) {
+            this.lock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Hands the session back after {@link #acquire()}.
+     */
+    void release() {
+        this.lastUsed = System.nanoTime();
+        this.lock.unlock();
+    }
+
+    private FauxsweeperGame load() throws IOException {
+        // the seed doesn't matter, the snapshot replaces the whole layout
+        FauxsweeperGame loaded = new FauxsweeperGame(this.tiling, this.width, this.height, this.mineCount, 0L, this.minePlacement, this.noGuess);
+        try (SnapshotFile file = SnapshotFile.open(this.snapshot, loaded, this.tilingName)) {
+            if (!file.isResumed()) {
+                throw new IOException("the snapshot of session " + this.id + " is missing or damaged");
+            }
+        }
+        // the stale snapshot is left behind, to be replaced on the next eviction
+        return loaded;
+    }
+
+    /**
+     * Writes the game to its snapshot and drops it from memory, if nobody has played on it since a certain time
+     * and nobody is playing on it right now.
+     *
+     * @param idleSince The {@link System#nanoTime()} before which the session must have last been used.
+     * @return Whether the session was evicted.
+     * @throws IOException If the snapshot can't be written.
+     */
+    boolean evictIfIdle(long idleSince) throws IOException {
+        if (this.game == null || this.lastUsed - idleSince > 0 || !this.lock.tryLock()) {
+            return false;
+        }
+        try {
+            if (this.game == null || this.lastUsed - idleSince > 0) {
+                return false;
+            }
+            SnapshotFile.write(this.snapshot, this.game, this.tilingName, 0);
+            this.game = null;
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return Whether the game is in memory, rather than only in its snapshot.
+     */
+    boolean isLoaded() {
+        return this.game != null;
+    }
+
+    /**
+     * Closes the session if nobody has played on it since a certain time and nobody is playing on it right now.
+     *
+     * @param idleSince The {@link System#nanoTime()} before which the session must have last been used.
+     * @return Whether the session was closed.
+     * @throws IOException If the snapshot can't be deleted.
+     */
+    boolean closeIfIdle(long idleSince) throws IOException {
+        if (this.lastUsed - idleSince > 0 || !this.lock.tryLock()) {
+            return false;
+        }
+        try {
+            if (this.closed || this.lastUsed - idleSince > 0) {
+                return false;
+            }
+            this.close();
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets the game along with its snapshot, waiting for whoever is playing on it right now to finish their move.
+     *
+     * @throws IOException If the snapshot can't be deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        this.lock.lock();
+        try {
+            this.closed = true;
+            this.game = null;
+            Files.deleteIfExists(this.snapshot);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.laggo.fauxsweeper.sim;
+
+import com.laggo.fauxsweeper.config.Configuration;
+import com.laggo.fauxsweeper.config.TilingRegistry;
+import com.laggo.fauxsweeper.core.CellAction;
+import com.laggo.fauxsweeper.core.FauxsweeperGame;
+import com.laggo.fauxsweeper.core.GameState;
+import com.laggo.fauxsweeper.core.Tiling;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays lots of games without any UI, spread over every core, to see how well a {@link Strategy} does.
+ * Every thread keeps one board and starts each of its games over on it, and every game gets its own seed,
+ * so the results only depend on the base seed and never on how many threads played.
+ * This never touches JavaFX, so it runs without a display.
+ * <p>
+ * Usage: {@code BatchSimulator [--config file] [--games n] [--strategy random|solver] [--threads n] [--seed n]}
+ */
+public final class BatchSimulator {
+    private BatchSimulator() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        File configFile = new File("config.json");
+        int games = 10000;
+        Strategy strategy = StandardStrategy.SOLVER;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Long seed = null;
+        for (int i = 0; i < args.length; ++i) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("no value given for " + args[i]);
+            }
+            switch (args[i]) {
+                case "--config":
+                    configFile = new File(args[++i]);
+                    break;
+                case "--games":
+                    games = Integer.parseInt(args[++i]);
+                    break;
+                case "--strategy":
+                    strategy = StandardStrategy.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        // reading a configuration which isn't there would write a default one, which a batch run has no business doing
+        Configuration config = configFile.exists() ? Configuration.fromFile(configFile) : Configuration.defaultConfiguration(configFile);
+        if (seed == null) {
+            seed = config.usesSetSeed() ? config.getSetSeed() : System.nanoTime();
+        }
+
+        System.out.printf("playing %d games of %dx%d %s with %d mines, strategy %s, %d threads, seed %d%n",
+                games, config.getBoardWidth(), config.getBoardHeight(), config.getCellType(), config.getMineCount(), strategy, threads, seed);
+        Result result = run(config, strategy, games, threads, seed);
+        System.out.printf("won %d of %d games (%.2f%%)%n", result.getWins(), result.getGames(), result.getWinRate() * 100);
+        System.out.printf("%d clicks, %.2f per game%n", result.getClicks(), (double) result.getClicks() / result.getGames());
+        if (config.isNoGuess()) {
+            System.out.printf("%d games fell back to a layout which may need guessing%n", result.getGuessLayouts());
+        }
+        System.out.printf("%.2f s, %.1f games/s%n", result.getNanos() / 1e9, result.getGamesPerSecond());
+    }
+
+    /**
+     * Plays a batch of games.
+     *
+     * @param config   The configuration to play with. Only the board settings are used.
+     * @param strategy The strategy to play with.
+     * @param games    The number of games to play.
+     * @param threads  The number of threads to play on.
+     * @param seed     The seed every game's own seed is worked out from.
+     * @return What happened.
+     * @throws InterruptedException If this thread is interrupted while waiting for the games to finish.
+     */
+    public static Result run(Configuration config, Strategy strategy, int games, int threads, long seed) throws InterruptedException {
+        Tiling tiling = TilingRegistry.get(config.getCellType()).getTiling();
+        AtomicInteger nextGame = new AtomicInteger();
+        LongAdder wins = new LongAdder();
+        LongAdder clicks = new LongAdder();
+        LongAdder guessLayouts = new LongAdder();
+
+        Runnable worker = () -> {
+            FauxsweeperGame game = null;
+            Random strategyRand = new Random();
+            for (int i = nextGame.getAndIncrement(); i < games; i = nextGame.getAndIncrement()) {
+                // spread neighboring game numbers far apart, since java.util.Random starts out alike for nearby seeds
+                long gameSeed = (seed + i) * 0x9E3779B97F4A7C15L;
+                if (game == null) {
+                    game = new FauxsweeperGame(tiling, config.getBoardWidth(), config.getBoardHeight(), config.getMineCount(), gameSeed,
+                            config.getMinePlacement(), config.isNoGuess());
+                } else {
+                    game.newGame(gameSeed);
+                }
+                strategyRand.setSeed(~gameSeed);
+
+                int gameClicks = 0;
+                while (!game.isGameOver()) {
+                    game.apply(strategy.pickCell(game, strategyRand), CellAction.REVEAL);
+                    gameClicks++;
+                }
+                clicks.add(gameClicks);
+                if (game.getGameState() == GameState.WON) {
+                    wins.increment();
+                }
+                if (game.isNoGuess() && !game.isGuaranteedNoGuess()) {
+                    guessLayouts.increment();
+                }
+            }
+        };
+
+        long start = System.nanoTime();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; ++t) {
+            workers[t] = new Thread(worker, "simulator-" + t);
+            workers[t].start();
+        }
+        for (Thread thread : workers) {
+            thread.join();
+        }
+        return new Result(games, wins.sum(), clicks.sum(), guessLayouts.sum(), System.nanoTime() - start);
+    }
+
+    /**
+     * The outcome of a batch of games.
+     */
+    public static final class Result {
+        private final int games;
+        private final long wins;
+        private final long clicks;
+        private final long guessLayouts;
+        private final long nanos;
+
+        private Result(int games, long wins, long clicks, long guessLayouts, long nanos) {
+            this.games = games;
+            this.wins = wins;
+            this.clicks = clicks;
+            this.guessLayouts = guessLayouts;
+            this.nanos = nanos;
+        }
+
+        public int getGames() {
+            return this.games;
+        }
+
+        public long getWins() {
+            return this.wins;
+        }
+
+        /**
+         * @return The number of cells revealed over every game.
+         */
+        public long getClicks() {
+            return this.clicks;
+        }
+
+        /**
+         * @return The number of no-guess games whose layout the solver couldn't clear, which were played on a layout that may need guessing.
+         */
+        public long getGuessLayouts() {
+            return this.guessLayouts;
+        }
+
+        /**
+         * @return How long the batch took to play, in nanoseconds.
+         */
+        public long getNanos() {
+            return this.nanos;
+        }
+
+        public double getWinRate() {
+            return this.games == 0 ? 0 : (double) this.wins / this.games;
+        }
+
+        public double getGamesPerSecond() {
+            return this.games / (this.nanos / 1e9);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.laggo.fauxsweeper.sim;
+
+import com.laggo.fauxsweeper.cell.TilingProvider;
+import com.laggo.fauxsweeper.config.TilingRegistry;
+import com.laggo.fauxsweeper.core.GameState;
+import com.laggo.fauxsweeper.core.MoveReplay;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays back every game in a {@link com.laggo.fauxsweeper.core.MoveJournal} file without any UI, as fast as it can be read,
+ * and sums up how they ended. A game which plays out differently than it was recorded stops the replay with an error.
+ * This never touches JavaFX, so it runs without a display.
+ * <p>
+ * Usage: {@code JournalReplayer file}
+ */
+public final class JournalReplayer {
+    private JournalReplayer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("usage: JournalReplayer file");
+        }
+        AtomicLong won = new AtomicLong();
+        AtomicLong lost = new AtomicLong();
+        long start = System.nanoTime();
+        long games = MoveReplay.replayAll(Paths.get(args[0]), name -> {
+            TilingProvider<?> provider = TilingRegistry.get(name);
+            return provider == null ? null : provider.getTiling();
+        }, game -> {
+            if (game.getGameState() == GameState.WON) {
+                won.incrementAndGet();
+            } else if (game.getGameState() == GameState.LOST) {
+                lost.incrementAndGet();
+            }
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT, "replayed %d games: %d won, %d lost, %d unfinished%n", games, won.get(), lost.get(), games - won.get() - lost.get());
+        System.out.printf(Locale.ROOT, "%.2f s, %.1f games/s%n", seconds, games / seconds);
+    }
+}
@@ -0,0 +1,45 @@
+package com.laggo.fauxsweeper.sim;
+
+import com.laggo.fauxsweeper.core.CellStore;
+import com.laggo.fauxsweeper.core.FauxsweeperGame;
+
+import java.util.Random;
+
+/**
+ * The strategies the batch simulator knows by name.
+ */
+public enum StandardStrategy implements Strategy {
+    /**
+     * Reveals any hidden cell at random, which is a baseline for the others.
+     */
+    RANDOM {
+        @Override
+        public int pickCell(FauxsweeperGame game, Random rand) {
+            CellStore store = game.getCellStore();
+            // a few guesses almost always land on a hidden cell, unless the board is nearly cleared
+            for (int attempt = 0; attempt < 8; ++attempt) {
+                int candidate = rand.nextInt(store.size());
+                if (!store.isRevealed(candidate)) {
+                    return candidate;
+                }
+            }
+            int picked = -1;
+            int hidden = 0;
+            for (int i = 0; i < store.size(); ++i) {
+                if (!store.isRevealed(i) && rand.nextInt(++hidden) == 0) {
+                    picked = i;
+                }
+            }
+            return picked;
+        }
+    },
+    /**
+     * Reveals the cell least likely to hold a mine, as worked out by {@link FauxsweeperGame#getHint()}.
+     */
+    SOLVER {
+        @Override
+        public int pickCell(FauxsweeperGame game, Random rand) {
+            return game.getHint();
+        }
+    }
+}
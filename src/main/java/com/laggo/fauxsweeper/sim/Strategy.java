@@ -0,0 +1,19 @@
+package com.laggo.fauxsweeper.sim;
+
+import com.laggo.fauxsweeper.core.FauxsweeperGame;
+
+import java.util.Random;
+
+/**
+ * A way of playing Fauxsweeper, one reveal at a time.
+ */
+public interface Strategy {
+    /**
+     * Decides which cell to reveal next.
+     *
+     * @param game The game being played, which is not over yet.
+     * @param rand Randomness for the strategy to use, which belongs to the thread playing.
+     * @return The index of a hidden cell in the game's {@link com.laggo.fauxsweeper.core.CellStore}.
+     */
+    int pickCell(FauxsweeperGame game, Random rand);
+}
@@ -0,0 +1,153 @@
+package com.laggo.fauxsweeper.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Has many threads play one large {@link ConcurrentGame} at once, then checks that the board came out exactly as a single player
+ * would have left it: every count in sync, every zero opened all the way around, and the game won or lost exactly once.
+ */
+class ConcurrentGameTest {
+    private static final int SIZE = 300;
+    private static final int ROUNDS = 5;
+    // more threads than cores, so they get switched out in the middle of things
+    private static final int THREADS = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+
+    @Test
+    void floodsFromManyThreadsWithoutDoubleReveals() throws InterruptedException {
+        for (int round = 0; round < ROUNDS; ++round) {
+            // few enough mines that the zeros join up into huge areas, which every thread floods into at once
+            ConcurrentGame game = new ConcurrentGame(StandardTiling.SQUARE, SIZE, SIZE, SIZE * SIZE / 50, (long) round, MinePlacement.UNIFORM, false);
+            CellStore store = game.getCellStore();
+            game.apply(store.indexOf(SIZE / 2, SIZE / 2), CellAction.REVEAL);
+
+            // first open the left half only, so the game is still going and every count can be checked against the board
+            int half = SIZE / 2;
+            runAll(game, round, cell -> store.xOf(cell) < half);
+            checkCounts(game, "round " + round);
+            assertEquals(GameState.IN_PROGRESS, game.getGameState(), "round " + round + " ended early");
+
+            // then everything, which has to end in exactly one win
+            runAll(game, round, cell -> true);
+            assertEquals(GameState.WON, game.getGameState(), "round " + round);
+            assertEquals(-1, game.getClickedMineIndex(), "round " + round);
+            assertEquals(0, game.getUnrevealedSafeCells(), "round " + round);
+        }
+    }
+
+    @Test
+    void losesOnlyOnceWhenEveryThreadHitsAMine() throws InterruptedException {
+        for (int round = 0; round < ROUNDS; ++round) {
+            ConcurrentGame game = new ConcurrentGame(StandardTiling.SQUARE, SIZE, SIZE, SIZE * SIZE / 50, (long) ~round, MinePlacement.UNIFORM, false);
+            CellStore store = game.getCellStore();
+            game.apply(store.indexOf(SIZE / 2, SIZE / 2), CellAction.REVEAL);
+            AtomicInteger failures = new AtomicInteger();
+            race(t -> {
+                SplittableRandom rand = new SplittableRandom(t);
+                while (!game.isGameOver()) {
+                    if (game.apply(rand.nextInt(store.size()), CellAction.REVEAL) == ClickResult.FAIL) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            assertEquals(1, failures.get(), "round " + round + ": threads which lost the same game");
+            assertEquals(GameState.LOST, game.getGameState(), "round " + round);
+            int clicked = game.getClickedMineIndex();
+            assertTrue(clicked >= 0 && store.isMine(clicked), "round " + round + " ended on " + clicked);
+            assertEquals(0, game.getUnrevealedSafeCells(), "round " + round);
+        }
+    }
+
+    /**
+     * Has every thread click safe cells matching a predicate, and flag and unflag mines, until none are left.
+     */
+    private static void runAll(ConcurrentGame game, int round, IntPredicate wanted) throws InterruptedException {
+        CellStore store = game.getCellStore();
+        race(t -> {
+            SplittableRandom rand = new SplittableRandom((long) round * THREADS + t);
+            // every thread sweeps the board from its own starting point, so they keep running into each other's fills
+            int offset = rand.nextInt(store.size());
+            for (int i = 0; i < store.size() && !game.isGameOver(); ++i) {
+                int cell = (offset + i) % store.size();
+                if (store.isMine(cell)) {
+                    if (rand.nextInt(8) == 0) {
+                        game.apply(cell, rand.nextBoolean() ? CellAction.CYCLE_FLAG : CellAction.CYCLE_FLAG_BACK);
+                    }
+                } else if (wanted.test(cell) && !store.isRevealed(cell) && store.getState(cell) == CellState.NO_FLAG) {
+                    // flags on safe cells only come from flood fills running over them, which leaves them revealed
+                    game.apply(cell, CellAction.REVEAL);
+                }
+            }
+        });
+    }
+
+    /**
+     * Checks the board of a game which is still going against its counts. A cell revealed twice would have been taken off the count twice.
+     */
+    private static void checkCounts(ConcurrentGame game, String context) {
+        CellStore store = game.getCellStore();
+        int unrevealedSafe = 0;
+        int flags = 0;
+        for (int i = 0; i < store.size(); ++i) {
+            if (store.getState(i) != CellState.NO_FLAG) {
+                flags++;
+            }
+            if (store.isMine(i)) {
+                assertFalse(store.isRevealed(i), context + ": mine " + i + " was revealed");
+                continue;
+            }
+            if (!store.isRevealed(i)) {
+                unrevealedSafe++;
+            } else if (store.getValue(i) == CellValue.ZERO) {
+                int zero = i;
+                game.getTopology().forEachNeighbor(i, neighbor -> assertTrue(store.isRevealed(neighbor),
+                        context + ": zero " + zero + " was revealed without its neighbor " + neighbor));
+            }
+        }
+        assertEquals(unrevealedSafe, game.getUnrevealedSafeCells(), context + ": unrevealed safe cells");
+        assertEquals(flags, game.getFlagCount(), context + ": flagged cells");
+    }
+
+    /**
+     * Runs the same work on many threads, all let go at the same moment.
+     */
+    private static void race(ThreadWork work) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(1);
+        Thread[] workers = new Thread[THREADS];
+        Throwable[] failure = new Throwable[1];
+        for (int t = 0; t < THREADS; ++t) {
+            int id = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    ready.await();
+                    work.run(id);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "stress-" + t);
+            workers[t].setUncaughtExceptionHandler((thread, e) -> failure[0] = e);
+            workers[t].start();
+        }
+        ready.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure[0] != null) {
+            fail("a thread failed", failure[0]);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadWork {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,138 @@
+package com.laggo.fauxsweeper.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FloodFillTest {
+    private static final int[][] SIZES = {{1, 1}, {2, 3}, {5, 5}, {9, 9}, {16, 16}, {30, 16}, {7, 23}};
+
+    /**
+     * The recursive flood fill cells used to do before {@link FloodFill}, kept as the reference it has to agree with.
+     * It walks the same neighbors the cell classes used to list, worked out from coordinates rather than through {@link Tiling}.
+     */
+    private static Set<Integer> getConnectedMatching(StandardTiling tiling, int width, int height, int start, IntPredicate pred, boolean includeNeighbors) {
+        Map<Integer, Boolean> foundSoFar = new HashMap<>();
+        recursiveConnectedMatching(tiling, width, height, start, foundSoFar, pred, includeNeighbors);
+        return foundSoFar.keySet();
+    }
+
+    private static void recursiveConnectedMatching(StandardTiling tiling, int width, int height, int cell, Map<Integer, Boolean> soFar,
+                                                   IntPredicate pred, boolean includeNeighbors) {
+        if (soFar.containsKey(cell)) {
+            return;
+        }
+        soFar.put(cell, false);
+        for (int neighbor : oldNeighbors(tiling, width, height, cell)) {
+            if (pred.test(neighbor)) {
+                recursiveConnectedMatching(tiling, width, height, neighbor, soFar, pred, includeNeighbors);
+            } else if (includeNeighbors) {
+                // add it anyway but don't recurse
+                soFar.put(neighbor, true);
+            }
+        }
+        soFar.put(cell, true);
+    }
+
+    private static Set<Integer> oldNeighbors(StandardTiling tiling, int width, int height, int cell) {
+        int x = cell % width;
+        int y = cell / width;
+        int[][] offsets;
+        switch (tiling) {
+            case SQUARE:
+                offsets = new int[][]{{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+                break;
+            case HEXAGONAL:
+                offsets = y % 2 == 1
+                        ? new int[][]{{0, -1}, {1, -1}, {1, 0}, {1, 1}, {0, 1}, {-1, 0}}
+                        : new int[][]{{-1, -1}, {0, -1}, {1, 0}, {0, 1}, {-1, 1}, {-1, 0}};
+                break;
+            default:
+                offsets = new int[][]{{-1, 0}, {1, 0}, (x + y) % 2 == 1 ? new int[]{0, -1} : new int[]{0, 1}};
+                break;
+        }
+        Set<Integer> neighbors = new HashSet<>();
+        for (int[] offset : offsets) {
+            int neighborX = x + offset[0];
+            int neighborY = y + offset[1];
+            if (neighborX >= 0 && neighborY >= 0 && neighborX < width && neighborY < height) {
+                neighbors.add(neighborY * width + neighborX);
+            }
+        }
+        return neighbors;
+    }
+
+    private static Set<Integer> found(FloodFill fill) {
+        Set<Integer> found = new HashSet<>();
+        fill.forEach(found::add);
+        assertEquals(fill.size(), found.size(), "a cell was found twice");
+        return found;
+    }
+
+    @ParameterizedTest
+    @EnumSource(StandardTiling.class)
+    void matchesRecursiveFillOnRevealedBoards(StandardTiling tiling) {
+        Random rand = new Random(tiling.ordinal());
+        for (int[] size : SIZES) {
+            int width = size[0];
+            int height = size[1];
+            for (int round = 0; round < 20; ++round) {
+                // from empty boards to crowded ones, so fills range from the whole board down to a single cell
+                FauxsweeperGame game = new FauxsweeperGame(tiling, width, height, rand.nextInt(width * height), rand.nextLong());
+                CellStore store = game.getCellStore();
+                FloodFill fill = new FloodFill(game.getTopology());
+                IntPredicate zero = i -> store.getValue(i) == CellValue.ZERO;
+                for (int start = 0; start < store.size(); ++start) {
+                    fill.fill(start, zero, true);
+                    assertEquals(getConnectedMatching(tiling, width, height, start, zero, true), found(fill),
+                            tiling + " " + width + "x" + height + " from " + start);
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(StandardTiling.class)
+    void matchesRecursiveFillWithoutNeighbors(StandardTiling tiling) {
+        Random rand = new Random(~tiling.ordinal());
+        for (int[] size : SIZES) {
+            int width = size[0];
+            int height = size[1];
+            for (int round = 0; round < 20; ++round) {
+                boolean[] matching = new boolean[width * height];
+                double share = rand.nextDouble();
+                for (int i = 0; i < matching.length; ++i) {
+                    matching[i] = rand.nextDouble() < share;
+                }
+                IntPredicate pred = i -> matching[i];
+                FloodFill fill = new FloodFill(NeighborTopology.of(tiling, width, height));
+                for (int start = 0; start < matching.length; ++start) {
+                    fill.fill(start, pred, false);
+                    assertEquals(getConnectedMatching(tiling, width, height, start, pred, false), found(fill),
+                            tiling + " " + width + "x" + height + " from " + start);
+                }
+            }
+        }
+    }
+
+    @Test
+    void floodsHugeSparseBoard() {
+        // the recursive fill needed one stack frame per cell, which overflowed long before this
+        FauxsweeperGame game = new FauxsweeperGame(StandardTiling.SQUARE, 4000, 4000, 1000, 1L);
+        ClickResult result = assertDoesNotThrow(() -> game.apply(2000, 2000, CellAction.REVEAL));
+        assertEquals(ClickResult.OK, result);
+        // a thousand scattered mines wall nothing off, so that one flood reaches every safe cell and wins
+        assertEquals(GameState.WON, game.getGameState());
+        assertEquals(0, game.getUnrevealedSafeCells());
+    }
+}
@@ -0,0 +1,113 @@
+package com.laggo.fauxsweeper.core;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InfiniteGameTest {
+    private static final int RADIUS = 150;
+    private static final double DENSITY = 0.18;
+    // far fewer than the square covers, so chunks keep getting evicted and brought back
+    private static final int MAX_CHUNKS = 16;
+
+    /**
+     * Clears a big square, peeking at the mines so it never loses: it reveals every safe cell and flags every mine in rows going back and forth,
+     * and leaves flood fills to spread wherever they go. Afterwards every safe cell has to be revealed, every mine flagged,
+     * every zero opened all the way around, and every number the same as on a fresh game with the same seed which never evicted anything.
+     */
+    @ParameterizedTest
+    @EnumSource(StandardTiling.class)
+    void clearsSquareWhileEvictingChunks(StandardTiling tiling, @TempDir Path dir) throws IOException {
+        try (InfiniteGame game = new InfiniteGame(tiling, DENSITY, 1L, MAX_CHUNKS, dir.resolve("chunks.bin"));
+             InfiniteGame fresh = new InfiniteGame(tiling, DENSITY, 1L, Integer.MAX_VALUE, dir.resolve("fresh.bin"))) {
+            explore(game);
+            assertTrue(game.getEvictedChunkCount() > 0, "no chunk was ever evicted");
+            assertTrue(game.getStoredChunkCount() > 0, "no chunk was ever stored");
+
+            fresh.apply(0, 0, CellAction.REVEAL);
+            check(game, fresh);
+        }
+    }
+
+    private static void explore(InfiniteGame game) {
+        game.apply(0, 0, CellAction.REVEAL);
+        for (int y = -RADIUS; y <= RADIUS; ++y) {
+            // back and forth, so the chunks at the end of one row are the first needed by the next
+            for (int i = -RADIUS; i <= RADIUS; ++i) {
+                int x = y % 2 == 0 ? i : -i;
+                if (game.isRevealed(x, y)) {
+                    continue;
+                }
+                if (game.getValue(x, y) == CellValue.MINE) {
+                    if (game.getState(x, y) != CellState.FLAG) {
+                        game.apply(x, y, CellAction.CYCLE_FLAG);
+                    }
+                } else {
+                    game.apply(x, y, CellAction.REVEAL);
+                }
+            }
+        }
+        assertFalse(game.isGameOver(), "the explorer lost");
+        assertTrue(game.isSettled(), "a flood fill never finished");
+    }
+
+    private static void check(InfiniteGame game, InfiniteGame fresh) {
+        long flags = 0;
+        for (int y = -RADIUS; y <= RADIUS; ++y) {
+            for (int x = -RADIUS; x <= RADIUS; ++x) {
+                String cell = "(" + x + ", " + y + ")";
+                CellValue value = game.getValue(x, y);
+                assertEquals(fresh.getValue(x, y), value, cell + " came back wrong");
+                if (value == CellValue.MINE) {
+                    assertFalse(game.isRevealed(x, y), "mine " + cell + " was revealed");
+                    assertEquals(CellState.FLAG, game.getState(x, y), "mine " + cell + " lost its flag");
+                    flags++;
+                } else {
+                    assertTrue(game.isRevealed(x, y), cell + " was left hidden");
+                }
+            }
+        }
+        assertEquals(flags, game.getFlagCount(), "flagged cells");
+
+        // zeros on the edge of the square flood beyond it, so those are checked a little further out
+        int outer = RADIUS + InfiniteGame.CHUNK_SIZE;
+        int[] neighbors = new int[16];
+        for (int y = -outer; y <= outer; ++y) {
+            for (int x = -outer; x <= outer; ++x) {
+                if (!game.isRevealed(x, y) || game.getValue(x, y) != CellValue.ZERO) {
+                    continue;
+                }
+                int count = neighbors(game, x, y, neighbors);
+                for (int i = 0; i < count; i += 2) {
+                    assertTrue(game.isRevealed(neighbors[i], neighbors[i + 1]), "zero (" + x + ", " + y + ") was revealed without its neighbor ("
+                            + neighbors[i] + ", " + neighbors[i + 1] + ")");
+                }
+            }
+            // reading cells brings chunks back without evicting, so touch a single chunk now and then to let the rest go
+            game.touch(0, y, 0, y);
+        }
+    }
+
+    /**
+     * Lists the neighbors of a cell as pairs of coordinates, asking the tiling on a board big enough to hold them.
+     *
+     * @return The number of coordinates written.
+     */
+    private static int neighbors(InfiniteGame game, int x, int y, int[] neighbors) {
+        int localX = 2 + (x & 1);
+        int localY = 2 + (y & 1);
+        int[] count = new int[1];
+        game.getTiling().forEachNeighbor(5, 5, localX, localY, neighbor -> {
+            neighbors[count[0]++] = x + neighbor % 5 - localX;
+            neighbors[count[0]++] = y + neighbor / 5 - localY;
+        });
+        return count[0];
+    }
+}